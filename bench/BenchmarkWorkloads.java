@@ -0,0 +1,135 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+// Hot-path operations exercised by the JMH suite in bench/benchmarks.
+// JMH refuses benchmark classes in the default package, and classes in a
+// named package cannot see ours, so the benchmark looks this class up by name
+// once per trial and then only calls the returned Callables.
+public final class BenchmarkWorkloads {
+    private BenchmarkWorkloads() {
+    }
+
+    // Operations keyed by name, for a "small", "typical" or "pathological" resume
+    public static Map<String, Callable<Object>> forSize(String size) throws IOException {
+        ResumeSnapshot snapshot = snapshot(size);
+        Resume resume = Resume.from(snapshot);
+        ResumePdfRenderer renderer = new ResumePdfRenderer();
+        ResumePdfRenderer cachingRenderer = new ResumePdfRenderer(true, new PdfCache(64L * 1024 * 1024, null, 0));
+        ByteArrayOutputStream pdfBuffer = new ByteArrayOutputStream(64 * 1024);
+        byte[] binaryRbd = ResumeDataFile.toBytes(snapshot);
+        byte[] textRbd = legacyText(snapshot);
+
+        String experience = snapshot.getValues().get("experience");
+        String skills = snapshot.getValues().get("skills");
+        String certifications = snapshot.getValues().get("certifications");
+
+        // Incremental preview: alternate one field between two values and patch
+        PreviewSections sections = new PreviewSections();
+        PreviewView previewView = new PreviewView(new java.awt.Font(java.awt.Font.MONOSPACED, java.awt.Font.PLAIN, 10));
+        Resume[] previewStates = {resume, resume.withField("experience", experience + "\nEdited line")};
+        int[] previewToggle = {0};
+        sections.patch(previewView, resume::get);
+
+        Map<String, Callable<Object>> ops = new LinkedHashMap<>();
+        ops.put("generatePreviewText", () -> PreviewSections.generatePreviewText(resume::get));
+        ops.put("patchPreviewSection", () -> {
+            Resume state = previewStates[previewToggle[0] ^= 1];
+            sections.invalidate("experience");
+            sections.patch(previewView, state::get);
+            return previewView;
+        });
+        ops.put("parseExperience", () -> ExperienceEntry.parseAll(experience));
+        ops.put("parseSkills", () -> Skill.parseAll(skills));
+        ops.put("parseCertifications", () -> Certification.parseAll(certifications));
+        ops.put("parseResume", () -> Resume.from(snapshot));
+        ops.put("renderPdf", () -> {
+            pdfBuffer.reset();
+            renderer.render(resume, pdfBuffer);
+            return pdfBuffer.size();
+        });
+        ops.put("renderPdfCached", () -> {
+            pdfBuffer.reset();
+            cachingRenderer.render(resume, pdfBuffer);
+            return pdfBuffer.size();
+        });
+        ops.put("fingerprint", () -> PdfCache.fingerprint(resume));
+        ops.put("saveRbd", () -> ResumeDataFile.toBytes(snapshot));
+        ops.put("loadRbd", () -> ResumeDataFile.read(new ByteArrayInputStream(binaryRbd)));
+        ops.put("loadLegacyRbd", () -> ResumeDataFile.read(new ByteArrayInputStream(textRbd)));
+        return ops;
+    }
+
+    static ResumeSnapshot snapshot(String size) {
+        Map<String, String> values = new HashMap<>();
+        values.put("fullName", "Jeanne Martin");
+        values.put("email", "jeanne.martin@example.com");
+        values.put("phone", "+33 6 12 34 56 78");
+        values.put("location", "Lyon, 69001");
+        values.put("linkedin", "https://linkedin.com/in/jeanne-martin");
+
+        switch (size) {
+            case "small":
+                values.put("experience", "Développeuse | Entreprise Tech | 2022-Présent\n• Développé des applications web");
+                values.put("skills", "Java, SQL");
+                values.put("certifications", "Oracle Certified Java Programmer | Oracle | 2022");
+                break;
+            case "typical":
+                values.put("summary", "Ingénieure logiciel\nHuit ans d'expérience en développement backend.");
+                values.put("experience", repeatEntries(4, 4));
+                values.put("education", "Master Informatique\nUniversité Lyon 1\n2015\nMention bien");
+                values.put("skills", "Programming Languages: Java, Python, JavaScript, C++\nWeb Technologies: HTML, CSS, React, Node.js, Spring Boot\nDatabases: MySQL, PostgreSQL, MongoDB\nTools & Technologies: Git, Docker, AWS, Jenkins");
+                values.put("projects", "E-Commerce Web Application | Java, Spring Boot, React, MySQL | 2023\n• Built a full-stack e-commerce platform");
+                values.put("certifications", repeatLines("AWS Certified Solutions Architect | Amazon Web Services | 2023", 5));
+                break;
+            case "pathological":
+                // Roughly 10k lines in each of the large sections
+                values.put("summary", repeatLines("Ingénieure logiciel passionnée par la performance.", 200));
+                values.put("experience", repeatEntries(2000, 3));
+                values.put("education", repeatLines("Master Informatique\nUniversité Lyon 1\n2015\n", 500));
+                values.put("skills", repeatLines("Java, Python, Go, Rust, SQL", 10000));
+                values.put("projects", repeatLines("• Projet open source maintenu depuis 2015", 10000));
+                values.put("certifications", repeatLines("AWS Certified Solutions Architect | Amazon Web Services | 2023", 10000));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown resume size: " + size);
+        }
+        return new ResumeSnapshot(values, null, ResumeDataFile.DEFAULT_TEMPLATE);
+    }
+
+    private static String repeatEntries(int entries, int bullets) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                text.append("\n\n");
+            }
+            text.append("Ingénieure Logiciel ").append(i).append("\nEntreprise ").append(i).append(" | 2015-2020");
+            for (int b = 0; b < bullets; b++) {
+                text.append("\n• Amélioré la performance du système de ").append(b * 10).append("%");
+            }
+        }
+        return text.toString();
+    }
+
+    private static String repeatLines(String line, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append('\n');
+            }
+            text.append(line);
+        }
+        return text.toString();
+    }
+
+    // The version 1 key=value encoding, for measuring the legacy load path
+    private static byte[] legacyText(ResumeSnapshot snapshot) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> entry : snapshot.getValues().entrySet()) {
+            text.append(entry.getKey()).append('=').append(entry.getValue().replace("\n", "\\n")).append('\n');
+        }
+        text.append("template=").append(snapshot.getTemplate()).append('\n');
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Full PDF export into an in-memory stream, with and without the PDF cache.
+// The pathological size goes through the streaming page-at-a-time layout.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfRenderBenchmarks {
+
+    @Param({"small", "typical", "pathological"})
+    public String size;
+
+    private Callable<Object> renderPdf;
+    private Callable<Object> renderPdfCached;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Map<String, Callable<Object>> ops = (Map<String, Callable<Object>>) Class.forName("BenchmarkWorkloads")
+            .getMethod("forSize", String.class)
+            .invoke(null, size);
+        renderPdf = ops.get("renderPdf");
+        renderPdfCached = ops.get("renderPdfCached");
+    }
+
+    @Benchmark
+    public Object renderPdf() throws Exception {
+        return renderPdf.call();
+    }
+
+    @Benchmark
+    public Object renderPdfCached() throws Exception {
+        return renderPdfCached.call();
+    }
+}
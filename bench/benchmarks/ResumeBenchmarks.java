@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH suite for the preview, parsing and .rbd load/save hot paths.
+// PDF export lives in PdfRenderBenchmarks. Run with "make bench"; results are
+// written to bench-results.json.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResumeBenchmarks {
+
+    @Param({"small", "typical", "pathological"})
+    public String size;
+
+    private Callable<Object> generatePreviewText;
+    private Callable<Object> patchPreviewSection;
+    private Callable<Object> parseExperience;
+    private Callable<Object> parseSkills;
+    private Callable<Object> parseCertifications;
+    private Callable<Object> parseResume;
+    private Callable<Object> saveRbd;
+    private Callable<Object> loadRbd;
+    private Callable<Object> loadLegacyRbd;
+    private Callable<Object> fingerprint;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        // The application lives in the default package, so it is only reachable by name
+        Map<String, Callable<Object>> ops = (Map<String, Callable<Object>>) Class.forName("BenchmarkWorkloads")
+            .getMethod("forSize", String.class)
+            .invoke(null, size);
+        generatePreviewText = ops.get("generatePreviewText");
+        patchPreviewSection = ops.get("patchPreviewSection");
+        parseExperience = ops.get("parseExperience");
+        parseSkills = ops.get("parseSkills");
+        parseCertifications = ops.get("parseCertifications");
+        parseResume = ops.get("parseResume");
+        saveRbd = ops.get("saveRbd");
+        loadRbd = ops.get("loadRbd");
+        loadLegacyRbd = ops.get("loadLegacyRbd");
+        fingerprint = ops.get("fingerprint");
+    }
+
+    @Benchmark
+    public Object generatePreviewText() throws Exception {
+        return generatePreviewText.call();
+    }
+
+    @Benchmark
+    public Object patchPreviewSection() throws Exception {
+        return patchPreviewSection.call();
+    }
+
+    @Benchmark
+    public Object parseExperience() throws Exception {
+        return parseExperience.call();
+    }
+
+    @Benchmark
+    public Object parseSkills() throws Exception {
+        return parseSkills.call();
+    }
+
+    @Benchmark
+    public Object parseCertifications() throws Exception {
+        return parseCertifications.call();
+    }
+
+    @Benchmark
+    public Object parseResume() throws Exception {
+        return parseResume.call();
+    }
+
+    @Benchmark
+    public Object saveRbd() throws Exception {
+        return saveRbd.call();
+    }
+
+    @Benchmark
+    public Object loadRbd() throws Exception {
+        return loadRbd.call();
+    }
+
+    @Benchmark
+    public Object loadLegacyRbd() throws Exception {
+        return loadLegacyRbd.call();
+    }
+
+    @Benchmark
+    public Object fingerprint() throws Exception {
+        return fingerprint.call();
+    }
+}
@@ -0,0 +1,357 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+// Background autosave with a write-ahead journal.
+//
+// Edits mark a field dirty; a short idle timer then copies the dirty values on
+// the EDT and hands them to a single background thread, which appends one
+// journal record per field. Pending values are coalesced per field, so a slow
+// disk (e.g. a network home directory) delays saving but never blocks typing
+// and never queues unbounded work. Once the journal grows past a threshold it
+// is compacted into a full .rbd snapshot and truncated.
+//
+// The journal follows the document shown in the editor. When a document with
+// unsaved changes is switched away from, its content is written whole as
+// parked-<n>.rbd, and that file is removed again once the document is shown.
+// Modified documents in the background therefore survive a crash too.
+//
+// A clean exit deletes all of these files; finding them at startup means the
+// previous session crashed and its edits can be recovered from snapshot +
+// journal and the parked files.
+//
+// Journal record: key (unsigned short length + UTF-8), value (int length +
+// UTF-8), CRC32 of key and value bytes. A torn last record is ignored.
+class AutosaveService {
+    private static final int IDLE_DELAY_MS = 1500;
+    private static final long COMPACT_THRESHOLD_BYTES = 512 * 1024;
+    private static final String PARKED_PREFIX = "parked-";
+
+    private final File directory;
+    private final File journalFile;
+    private final File snapshotFile;
+    private final Function<String, String> valueReader;
+
+    // Touched on the EDT only
+    private final Set<String> dirtyFields = new LinkedHashSet<>();
+    private final javax.swing.Timer idleTimer;
+
+    // Latest value per field waiting to be written; shared with the writer thread
+    private final Map<String, String> pending = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    // Owned by the writer thread
+    private final Map<String, String> state = new HashMap<>();
+    private DataOutputStream journal;
+    private long journalBytes = 0;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    AutosaveService(File directory, Function<String, String> valueReader) {
+        this.directory = directory;
+        this.journalFile = new File(directory, "autosave.journal");
+        this.snapshotFile = new File(directory, "autosave" + ResumeDataFile.EXTENSION);
+        this.valueReader = valueReader;
+        this.idleTimer = new javax.swing.Timer(IDLE_DELAY_MS, e -> collectDirtyFields());
+        this.idleTimer.setRepeats(false);
+    }
+
+    // ~/.resumebuilder/autosave, or under -Dresumebuilder.home when set
+    static File defaultDirectory() {
+        return new File(homeDirectory(), "autosave");
+    }
+
+    // Per-user application data: ~/.resumebuilder, or -Dresumebuilder.home when set
+    static File homeDirectory() {
+        String home = System.getProperty("resumebuilder.home");
+        return home != null && !home.isEmpty()
+            ? new File(home)
+            : new File(System.getProperty("user.home"), ".resumebuilder");
+    }
+
+    // Takes an exclusive lock so that two running instances never share a journal
+    boolean acquire() {
+        try {
+            Files.createDirectories(directory.toPath());
+            lockChannel = FileChannel.open(new File(directory, "autosave.lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = lockChannel.tryLock();
+            if (lock == null) {
+                lockChannel.close();
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Autosave disabled: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Entries left behind by a crashed session (snapshot plus replayed journal), or null if there are none
+    Map<String, String> recover() throws IOException {
+        Map<String, String> recovered = new LinkedHashMap<>();
+        if (snapshotFile.isFile()) {
+            ResumeSnapshot snapshot = ResumeDataFile.read(snapshotFile);
+            recovered.putAll(snapshot.getValues());
+            recovered.put(ResumeDataFile.TEMPLATE_KEY, snapshot.getTemplate());
+            if (snapshot.getProfileImagePath() != null) {
+                recovered.put(ResumeDataFile.PROFILE_IMAGE_KEY, snapshot.getProfileImagePath());
+            }
+        }
+        if (journalFile.isFile()) {
+            replayJournal(journalFile, recovered);
+        }
+        return recovered.isEmpty() ? null : recovered;
+    }
+
+    // Background documents left behind by a crashed session, in the order they were opened
+    List<ResumeSnapshot> recoverParked() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PARKED_PREFIX) && name.endsWith(ResumeDataFile.EXTENSION));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files, Comparator.comparingInt(AutosaveService::parkedNumber));
+        List<ResumeSnapshot> recovered = new ArrayList<>();
+        for (File file : files) {
+            try {
+                recovered.add(ResumeDataFile.read(file));
+            } catch (IOException e) {
+                System.err.println("Could not read autosaved document " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return recovered;
+    }
+
+    private static int parkedNumber(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring(PARKED_PREFIX.length(), name.length() - ResumeDataFile.EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    static void replayJournal(File file, Map<String, String> target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte[] key;
+                byte[] value;
+                int checksum;
+                try {
+                    key = new byte[in.readUnsignedShort()];
+                    in.readFully(key);
+                    int length = in.readInt();
+                    if (length < 0 || length > in.available()) {
+                        return; // Corrupt or torn length prefix
+                    }
+                    value = new byte[length];
+                    in.readFully(value);
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    return; // Torn final record
+                }
+                if (checksum != checksum(key, value)) {
+                    return;
+                }
+                target.put(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // Starts journaling from this state; persistNow writes it out immediately (used after a recovery)
+    void start(Map<String, String> initialState, boolean persistNow) {
+        writer.execute(() -> {
+            state.putAll(initialState);
+            try {
+                if (persistNow) {
+                    compact();
+                } else {
+                    discardFiles();
+                }
+            } catch (IOException e) {
+                System.err.println("Autosave error: " + e.getMessage());
+            }
+        });
+    }
+
+    // Keeps a crash copy of a modified document that is no longer shown
+    void park(int number, ResumeSnapshot resume) {
+        writer.execute(() -> {
+            try {
+                Path temp = Files.createTempFile(directory.toPath(), "parked", ".tmp");
+                ResumeDataFile.write(temp.toFile(), resume);
+                Files.move(temp, parkedFile(number).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Autosave error: " + e.getMessage());
+            }
+        });
+    }
+
+    // Drops the crash copy of a document, once it is shown (and journaled) or closed
+    void unpark(int number) {
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(parkedFile(number).toPath());
+            } catch (IOException e) {
+                System.err.println("Autosave error: " + e.getMessage());
+            }
+        });
+    }
+
+    // Removes the parked files of a previous session once they have been read back
+    void discardParked() {
+        writer.execute(() -> {
+            try {
+                deleteParkedFiles();
+            } catch (IOException e) {
+                System.err.println("Autosave error: " + e.getMessage());
+            }
+        });
+    }
+
+    private File parkedFile(int number) {
+        return new File(directory, PARKED_PREFIX + number + ResumeDataFile.EXTENSION);
+    }
+
+    private void deleteParkedFiles() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PARKED_PREFIX));
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    // Called on the EDT for every edit; cheap, just records which field changed
+    void markDirty(String fieldName) {
+        dirtyFields.add(fieldName);
+        idleTimer.restart();
+    }
+
+    private void collectDirtyFields() {
+        if (dirtyFields.isEmpty()) {
+            return;
+        }
+        synchronized (pending) {
+            for (String field : dirtyFields) {
+                String value = valueReader.apply(field);
+                pending.put(field, value == null ? "" : value);
+            }
+            dirtyFields.clear();
+            if (flushScheduled) {
+                return; // The writer will pick up the newer values
+            }
+            flushScheduled = true;
+        }
+        writer.execute(this::flushPending);
+    }
+
+    private void flushPending() {
+        Map<String, String> batch;
+        synchronized (pending) {
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+        try {
+            for (Map.Entry<String, String> entry : batch.entrySet()) {
+                appendRecord(entry.getKey(), entry.getValue());
+                state.put(entry.getKey(), entry.getValue());
+            }
+            if (journal != null) {
+                journal.flush();
+            }
+            if (journalBytes > COMPACT_THRESHOLD_BYTES) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Autosave error: " + e.getMessage());
+        }
+    }
+
+    private void appendRecord(String key, String value) throws IOException {
+        if (journal == null) {
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+            journalBytes = journalFile.length();
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        journal.writeShort(keyBytes.length);
+        journal.write(keyBytes);
+        journal.writeInt(valueBytes.length);
+        journal.write(valueBytes);
+        journal.writeInt(checksum(keyBytes, valueBytes));
+        journalBytes += 2 + keyBytes.length + 4 + valueBytes.length + 4;
+    }
+
+    // Folds the journal into a full snapshot, then starts a fresh journal
+    private void compact() throws IOException {
+        ResumeDataFile.Builder builder = new ResumeDataFile.Builder();
+        for (Map.Entry<String, String> entry : state.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        Path temp = Files.createTempFile(directory.toPath(), "autosave", ".tmp");
+        ResumeDataFile.write(temp.toFile(), builder.build());
+        Files.move(temp, snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        closeJournal();
+        Files.deleteIfExists(journalFile.toPath());
+        journalBytes = 0;
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private void discardFiles() throws IOException {
+        closeJournal();
+        Files.deleteIfExists(journalFile.toPath());
+        Files.deleteIfExists(snapshotFile.toPath());
+        deleteParkedFiles();
+    }
+
+    // Clean shutdown: nothing needs recovering, so the journal, snapshot and parked files are removed
+    void shutdown() {
+        idleTimer.stop();
+        writer.execute(() -> {
+            try {
+                discardFiles();
+                if (lock != null) {
+                    lock.release();
+                    lockChannel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Autosave error: " + e.getMessage());
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int checksum(byte[] key, byte[] value) {
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+}
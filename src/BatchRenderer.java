@@ -0,0 +1,298 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Headless command-line renderer that turns .rbd files into PDFs.
+//
+//   java ResumeBuilder --batch [-o outputDir] [--threads N] [--queue N] [--fresh-styles] [--no-cache]
+//                      [--metrics file.json|file.prom] <file.rbd | file.rba | directory>...
+//
+// Directories are scanned for *.rbd and *.rba files. Every resume in an
+// archive is rendered to <id>.pdf. Each PDF is written next to its source
+// unless an output directory is given; it is rendered to a temporary file
+// and moved into place once complete, so a failed render never leaves a
+// truncated PDF behind. Uses the same layout as the GUI export and never
+// touches AWT displays.
+//
+// Files are rendered on a fixed pool of worker threads. Inputs are streamed
+// from the directory listings and at most queueLimit jobs are in flight at
+// once, so memory stays flat however many files a directory holds. A failing
+// document is reported and counted; it never aborts the rest of the batch.
+//
+// The summary includes the heap allocated per rendered PDF. --fresh-styles
+// compiles a fresh LayoutPlan (fonts included) for every document instead of
+// sharing one per template, so the two can be compared.
+//
+// Unchanged resumes are copied from the PdfCache instead of being laid out
+// again; --no-cache forces every file to be rendered.
+//
+// Every stage records into RenderMetrics; the summary lists them and
+// --metrics writes the full dump (JSON or Prometheus text) once the batch ends.
+class BatchRenderer {
+    private static final com.sun.management.ThreadMXBean THREAD_MX = allocationCounter();
+    private static final RenderMetrics.Histogram FILE_TIME = RenderMetrics.shared().timer("batch.file");
+
+    private final ResumePdfRenderer renderer;
+    private final PrintStream log;
+    private final int threads;
+    private final int queueLimit;
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final boolean sharedStyles;
+
+    private interface SnapshotSource {
+        ResumeSnapshot read() throws IOException;
+    }
+
+    BatchRenderer(PrintStream log, int threads, int queueLimit, boolean sharedStyles, boolean useCache) {
+        this.renderer = new ResumePdfRenderer(sharedStyles, useCache ? PdfCache.shared() : null);
+        this.sharedStyles = sharedStyles;
+        this.log = log;
+        this.threads = threads;
+        this.queueLimit = queueLimit;
+    }
+
+    static int run(String[] args) {
+        File outputDir = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueLimit = -1;
+        boolean sharedStyles = true;
+        boolean useCache = true;
+        File metricsFile = null;
+        List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                outputDir = new File(args[++i]);
+            } else if ((args[i].equals("--threads") || args[i].equals("--queue")) && i + 1 < args.length) {
+                int value;
+                try {
+                    value = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    value = 0;
+                }
+                if (value < 1) {
+                    return usage("Invalid value for " + args[i] + ": " + args[i + 1]);
+                }
+                if (args[i].equals("--threads")) {
+                    threads = value;
+                } else {
+                    queueLimit = value;
+                }
+                i++;
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFile = new File(args[++i]);
+            } else if (args[i].equals("--fresh-styles")) {
+                sharedStyles = false;
+            } else if (args[i].equals("--no-cache")) {
+                useCache = false;
+            } else if (args[i].startsWith("-")) {
+                return usage("Unknown option: " + args[i]);
+            } else {
+                inputs.add(new File(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            return usage("No input files or directories given");
+        }
+        if (outputDir != null && !outputDir.isDirectory() && !outputDir.mkdirs()) {
+            return usage("Cannot create output directory: " + outputDir);
+        }
+
+        if (queueLimit < 0) {
+            queueLimit = threads * 4;
+        }
+
+        int status;
+        try {
+            status = new BatchRenderer(System.out, threads, queueLimit, sharedStyles, useCache).renderAll(inputs, outputDir) ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Error reading inputs: " + e.getMessage());
+            status = 1;
+        } catch (InterruptedException e) {
+            System.err.println("Batch interrupted");
+            status = 1;
+        }
+        if (metricsFile != null) {
+            try {
+                RenderMetrics.shared().writeTo(metricsFile);
+            } catch (IOException e) {
+                System.err.println("Could not write metrics: " + e.getMessage());
+                status = 1;
+            }
+        }
+        return status;
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java ResumeBuilder --batch [-o outputDir] [--threads N] [--queue N] [--fresh-styles] [--no-cache] [--metrics file] <file.rbd | file.rba | directory>...");
+        return 2;
+    }
+
+    static File outputFileFor(File input, File outputDir) {
+        String name = input.getName();
+        if (name.toLowerCase().endsWith(ResumeDataFile.EXTENSION)) {
+            name = name.substring(0, name.length() - ResumeDataFile.EXTENSION.length());
+        }
+        File directory = outputDir != null ? outputDir : input.getAbsoluteFile().getParentFile();
+        return new File(directory, name + ".pdf");
+    }
+
+    // Renders every input, reporting per-file timing and aggregate throughput; returns true if all succeeded
+    boolean renderAll(List<File> inputs, File outputDir) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(queueLimit);
+        long start = System.nanoTime();
+        // Archives stay open until their jobs have run
+        List<ResumeArchive> archives = new ArrayList<>();
+
+        try {
+            for (File input : inputs) {
+                if (input.isDirectory()) {
+                    // Stream the listing instead of materializing it
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(input.toPath(),
+                            "*{" + ResumeDataFile.EXTENSION + "," + ResumeArchive.EXTENSION + "}")) {
+                        for (Path path : stream) {
+                            submitInput(pool, inFlight, path.toFile(), outputDir, archives);
+                        }
+                    }
+                } else {
+                    submitInput(pool, inFlight, input, outputDir, archives);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            for (ResumeArchive archive : archives) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    log.printf("Could not close archive %s: %s%n", archive.getFile(), e.getMessage());
+                }
+            }
+        }
+
+        int total = succeeded.get() + failed.get();
+        double elapsedMs = millisSince(start);
+        double seconds = Math.max(elapsedMs / 1000.0, 1e-9);
+        log.println("----------------------------------------------");
+        log.printf("Rendered %d of %d file(s), %d failed (%d threads, queue limit %d)%n",
+            succeeded.get(), total, failed.get(), threads, queueLimit);
+        log.printf("Total time:  %.1f ms (%.2f ms/file)%n", elapsedMs, total == 0 ? 0 : elapsedMs / total);
+        log.printf("Throughput:  %.1f files/s, %.2f MB/s written%n", total / seconds, totalBytes.get() / 1048576.0 / seconds);
+        log.printf("Image cache: %s%n", ProfileImageCache.shared().getStatsSummary());
+        log.printf("PDF cache:   %s%n", PdfCache.shared().getStatsSummary());
+        if (THREAD_MX != null && succeeded.get() > 0) {
+            log.printf("Allocation:  %.1f KB per PDF (%s styles)%n",
+                allocatedBytes.get() / 1024.0 / succeeded.get(), sharedStyles ? "shared" : "fresh");
+        }
+        log.printf("Stages:%n%s", RenderMetrics.shared().getStageSummary());
+        return failed.get() == 0;
+    }
+
+    private void submitInput(ExecutorService pool, Semaphore inFlight, File input, File outputDir,
+                             List<ResumeArchive> archives) throws InterruptedException {
+        if (!ResumeArchive.isArchive(input)) {
+            submit(pool, inFlight, input.getPath(), () -> ResumeDataFile.read(input), outputFileFor(input, outputDir));
+            return;
+        }
+        ResumeArchive archive;
+        try {
+            archive = ResumeArchive.open(input);
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            log.printf("FAIL  %s: %s%n", input.getPath(), e);
+            return;
+        }
+        archives.add(archive);
+        File directory = input.getAbsoluteFile().getParentFile();
+        for (String id : archive.ids()) {
+            submit(pool, inFlight, input.getPath() + "#" + id, () -> archive.get(id),
+                outputFileFor(new File(directory, id + ResumeDataFile.EXTENSION), outputDir));
+        }
+    }
+
+    // Blocks while queueLimit jobs are already pending, which is what keeps memory bounded
+    private void submit(ExecutorService pool, Semaphore inFlight, String label, SnapshotSource source, File output)
+            throws InterruptedException {
+        inFlight.acquire();
+        try {
+            pool.execute(() -> {
+                try {
+                    renderOne(label, source, output);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void renderOne(String label, SnapshotSource source, File output) {
+        long fileStart = System.nanoTime();
+        File partial = null;
+        try {
+            Resume resume = Resume.from(source.read());
+            ResumePdfRenderer.requireRenderable(resume);
+            long allocatedBefore = threadAllocatedBytes();
+            // Like PdfExportWorker: a render that fails halfway must not leave a truncated PDF at the target
+            partial = File.createTempFile("resume", ".pdf.part", output.getAbsoluteFile().getParentFile());
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(partial))) {
+                renderer.render(resume, out);
+            }
+            PdfExportWorker.moveIntoPlace(partial.toPath(), output.toPath());
+            partial = null;
+            allocatedBytes.addAndGet(threadAllocatedBytes() - allocatedBefore);
+            FILE_TIME.recordSince(fileStart);
+            long bytes = output.length();
+            totalBytes.addAndGet(bytes);
+            succeeded.incrementAndGet();
+            log.printf("OK    %8.2f ms  %8.1f KB  %s%n", millisSince(fileStart), bytes / 1024.0, output.getPath());
+        } catch (Exception | StackOverflowError e) {
+            // Isolate the failure to this document
+            failed.incrementAndGet();
+            FILE_TIME.fail();
+            log.printf("FAIL  %8.2f ms  %s: %s%n", millisSince(fileStart), label, e);
+            if (partial != null) {
+                partial.delete();
+            }
+        }
+    }
+
+    // HotSpot's per-thread allocation counter, or null when the JVM does not provide one
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+                if (counter.isThreadAllocatedMemorySupported()) {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // Not a HotSpot-compatible JVM
+        }
+        return null;
+    }
+
+    private static long threadAllocatedBytes() {
+        return THREAD_MX == null ? 0 : THREAD_MX.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+}
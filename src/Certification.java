@@ -0,0 +1,33 @@
+import java.util.*;
+
+// One certification or award, written as "Name | Issuer or date" on its own line.
+final class Certification {
+    private final String name;
+    private final String detail;
+
+    Certification(String name, String detail) {
+        this.name = name;
+        this.detail = detail;
+    }
+
+    String getName() { return name; }
+
+    // Null when the line has no "|" separator
+    String getDetail() { return detail; }
+
+    static List<Certification> parseAll(String text) {
+        List<Certification> certifications = new ArrayList<>();
+        for (String cert : text.split("\n")) {
+            cert = cert.trim();
+            if (!cert.isEmpty()) {
+                String[] parts = cert.split("\\|");
+                if (parts.length >= 2) {
+                    certifications.add(new Certification(parts[0].trim(), parts[1].trim()));
+                } else {
+                    certifications.add(new Certification(cert, null));
+                }
+            }
+        }
+        return Collections.unmodifiableList(certifications);
+    }
+}
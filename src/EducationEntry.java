@@ -0,0 +1,42 @@
+import java.util.*;
+
+// One degree in the education section.
+// Source format: degree, school, date and an optional extra line, separated by blank lines.
+final class EducationEntry {
+    private final String degree;
+    private final String school;
+    private final String date;
+    private final String details;
+
+    EducationEntry(String degree, String school, String date, String details) {
+        this.degree = degree;
+        this.school = school;
+        this.date = date;
+        this.details = details;
+    }
+
+    String getDegree() { return degree; }
+
+    // The following lines are null when missing
+    String getSchool() { return school; }
+
+    String getDate() { return date; }
+
+    String getDetails() { return details; }
+
+    static List<EducationEntry> parseAll(String text) {
+        if (text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<EducationEntry> entries = new ArrayList<>();
+        for (String entry : text.split("\n\n")) {
+            String[] lines = entry.trim().split("\n");
+            entries.add(new EducationEntry(
+                lines[0],
+                lines.length > 1 ? lines[1] : null,
+                lines.length > 2 ? lines[2] : null,
+                lines.length > 3 ? lines[3] : null));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,203 @@
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.BaseFont;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Embedded TrueType fonts for text the standard PDF fonts cannot show.
+//
+// The standard Type1 fonts (Helvetica, Times) cost nothing to embed but only
+// cover the WinAnsi (cp1252) character set. A resume containing anything
+// else, e.g. Polish or Greek names, is rendered with TrueType fonts loaded as
+// Identity-H and embedded as a per-document subset, so only the glyphs used
+// end up in the PDF. Font files are parsed once per process and the BaseFont
+// instances shared by every render.
+//
+// -Dresumebuilder.pdf.fonts=auto (default), embedded or standard selects the
+// behaviour. Fonts are looked up in -Dresumebuilder.fonts.dir, ./fonts and
+// the usual system font directories (DejaVu, Liberation, Arial/Times).
+final class EmbeddedFonts {
+    private static final Map<String, List<String>> CANDIDATES = new HashMap<>();
+
+    static {
+        candidates("sans", Font.NORMAL, "DejaVuSans.ttf", "LiberationSans-Regular.ttf", "arial.ttf", "Arial.ttf");
+        candidates("sans", Font.BOLD, "DejaVuSans-Bold.ttf", "LiberationSans-Bold.ttf", "arialbd.ttf", "Arial Bold.ttf");
+        candidates("sans", Font.ITALIC, "DejaVuSans-Oblique.ttf", "LiberationSans-Italic.ttf", "ariali.ttf", "Arial Italic.ttf");
+        candidates("sans", Font.BOLDITALIC, "DejaVuSans-BoldOblique.ttf", "LiberationSans-BoldItalic.ttf", "arialbi.ttf", "Arial Bold Italic.ttf");
+        candidates("serif", Font.NORMAL, "DejaVuSerif.ttf", "LiberationSerif-Regular.ttf", "times.ttf", "Times New Roman.ttf");
+        candidates("serif", Font.BOLD, "DejaVuSerif-Bold.ttf", "LiberationSerif-Bold.ttf", "timesbd.ttf", "Times New Roman Bold.ttf");
+        candidates("serif", Font.ITALIC, "DejaVuSerif-Italic.ttf", "LiberationSerif-Italic.ttf", "timesi.ttf", "Times New Roman Italic.ttf");
+        candidates("serif", Font.BOLDITALIC, "DejaVuSerif-BoldItalic.ttf", "LiberationSerif-BoldItalic.ttf", "timesbi.ttf", "Times New Roman Bold Italic.ttf");
+        candidates("mono", Font.NORMAL, "DejaVuSansMono.ttf", "LiberationMono-Regular.ttf", "cour.ttf", "Courier New.ttf");
+        candidates("mono", Font.BOLD, "DejaVuSansMono-Bold.ttf", "LiberationMono-Bold.ttf", "courbd.ttf", "Courier New Bold.ttf");
+    }
+
+    // Parsed fonts by file path, shared process-wide
+    private static final ConcurrentHashMap<String, BaseFont> BASE_FONTS = new ConcurrentHashMap<>();
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    // Font file name -> path, built on first use by scanning the font directories
+    private static volatile Map<String, Path> index;
+    private static volatile boolean warnedMissing = false;
+
+    private EmbeddedFonts() {
+    }
+
+    private static void candidates(String face, int style, String... files) {
+        CANDIDATES.put(face + "|" + style, Arrays.asList(files));
+    }
+
+    static String mode() {
+        String mode = System.getProperty("resumebuilder.pdf.fonts", "auto");
+        return mode.isEmpty() ? "auto" : mode;
+    }
+
+    // Whether this resume should be rendered with embedded fonts
+    static boolean shouldEmbed(Resume resume) {
+        switch (mode()) {
+            case "standard":
+                return false;
+            case "embedded":
+                return available();
+            default:
+                return !fitsStandardFonts(resume) && available();
+        }
+    }
+
+    // True when every character is in the WinAnsi set the standard fonts cover
+    static boolean fitsStandardFonts(Resume resume) {
+        CharsetEncoder encoder = WIN_ANSI.newEncoder();
+        for (String field : Resume.FIELD_NAMES) {
+            if (!encoder.canEncode(resume.get(field))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean available() {
+        if (path("sans", Font.NORMAL) != null) {
+            return true;
+        }
+        if (!warnedMissing) {
+            warnedMissing = true;
+            System.err.println("No TrueType fonts found (set -Dresumebuilder.fonts.dir); using standard PDF fonts");
+        }
+        return false;
+    }
+
+    // The embedded font for a standard family and style, or null if no file provides it.
+    // When only the regular face exists it is returned for every style; see hasStyle().
+    static BaseFont baseFont(Font.FontFamily family, int style) {
+        String face = face(family);
+        Path path = path(face, style & Font.BOLDITALIC);
+        if (path == null) {
+            path = path(face, Font.NORMAL);
+        }
+        if (path == null && !face.equals("sans")) {
+            path = path("sans", Font.NORMAL);
+        }
+        if (path == null) {
+            return null;
+        }
+        String key = path.toString();
+        BaseFont font = BASE_FONTS.get(key);
+        if (font != null) {
+            return font;
+        }
+        try {
+            font = BaseFont.createFont(key, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            font.setSubset(true);
+        } catch (Exception e) {
+            System.err.println("Could not load font " + key + ": " + e.getMessage());
+            return null;
+        }
+        BaseFont previous = BASE_FONTS.putIfAbsent(key, font);
+        return previous != null ? previous : font;
+    }
+
+    // Whether the font file itself is the requested bold/italic face, so iText must not simulate it
+    static boolean hasStyle(Font.FontFamily family, int style) {
+        return (style & Font.BOLDITALIC) == Font.NORMAL || path(face(family), style & Font.BOLDITALIC) != null;
+    }
+
+    private static String face(Font.FontFamily family) {
+        switch (family) {
+            case TIMES_ROMAN:
+                return "serif";
+            case COURIER:
+                return "mono";
+            default:
+                return "sans";
+        }
+    }
+
+    private static Path path(String face, int style) {
+        List<String> files = CANDIDATES.get(face + "|" + style);
+        if (files == null) {
+            return null;
+        }
+        Map<String, Path> fonts = index();
+        for (String file : files) {
+            Path path = fonts.get(file.toLowerCase(Locale.ROOT));
+            if (path != null) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Path> index() {
+        Map<String, Path> result = index;
+        if (result == null) {
+            synchronized (EmbeddedFonts.class) {
+                result = index;
+                if (result == null) {
+                    result = scanFontDirectories();
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Earlier directories win, so a configured directory overrides system fonts
+    private static Map<String, Path> scanFontDirectories() {
+        List<String> directories = new ArrayList<>();
+        String configured = System.getProperty("resumebuilder.fonts.dir");
+        if (configured != null && !configured.isEmpty()) {
+            directories.add(configured);
+        }
+        directories.add("fonts");
+        directories.add(System.getProperty("user.home") + File.separator + ".fonts");
+        directories.add("/usr/share/fonts");
+        directories.add("/usr/local/share/fonts");
+        directories.add("/Library/Fonts");
+        directories.add("/System/Library/Fonts/Supplemental");
+        String windows = System.getenv("WINDIR");
+        if (windows != null) {
+            directories.add(windows + File.separator + "Fonts");
+        }
+
+        Map<String, Path> fonts = new HashMap<>();
+        for (String directory : directories) {
+            Path root = Paths.get(directory);
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(root, 4)) {
+                files.filter(path -> path.toString().toLowerCase(Locale.ROOT).endsWith(".ttf"))
+                    .forEach(path -> fonts.putIfAbsent(path.getFileName().toString().toLowerCase(Locale.ROOT), path));
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Could not scan font directory " + directory + ": " + e.getMessage());
+            }
+        }
+        return fonts;
+    }
+}
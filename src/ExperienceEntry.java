@@ -0,0 +1,57 @@
+import java.util.*;
+
+// One job in the experience section.
+// Source format: "Title" line, then "Company | Dates" line, then one bullet per line.
+// Entries are separated by a blank line.
+final class ExperienceEntry {
+    private final String title;
+    private final String company;
+    private final String dates;
+    private final List<String> bullets;
+
+    ExperienceEntry(String title, String company, String dates, List<String> bullets) {
+        this.title = title;
+        this.company = company;
+        this.dates = dates;
+        this.bullets = Collections.unmodifiableList(new ArrayList<>(bullets));
+    }
+
+    String getTitle() { return title; }
+
+    // Null when the entry has no second line
+    String getCompany() { return company; }
+
+    // Null when the company line has no "|" separator
+    String getDates() { return dates; }
+
+    List<String> getBullets() { return bullets; }
+
+    static List<ExperienceEntry> parseAll(String text) {
+        if (text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ExperienceEntry> entries = new ArrayList<>();
+        for (String entry : text.split("\n\n")) {
+            String[] lines = entry.trim().split("\n");
+            String company = null;
+            String dates = null;
+            if (lines.length > 1) {
+                String[] parts = lines[1].split("\\|");
+                if (parts.length >= 2) {
+                    company = parts[0].trim();
+                    dates = parts[1].trim();
+                } else {
+                    company = lines[1];
+                }
+            }
+            List<String> bullets = new ArrayList<>();
+            for (int i = 2; i < lines.length; i++) {
+                if (!lines[i].trim().isEmpty()) {
+                    bullets.add(lines[i].trim());
+                }
+            }
+            entries.add(new ExperienceEntry(lines[0], company, dates, bullets));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Content-addressed store for profile photos, in ~/.resumebuilder/images
+// (-Dresumebuilder.images.dir overrides it).
+//
+// Uploading a photo scales it to its printed size once (see
+// ProfileImageCache) and stores the result under the hex SHA-256 of its bytes.
+// Resumes refer to it as "sha256:<hex>" instead of an absolute path, so .rbd
+// files keep their photo when the original is moved or deleted, a photo
+// shared by many resumes is stored once, and rendering reads a blob of a few
+// tens of KB instead of decoding the camera original. Blobs are never
+// modified: one is written to a temporary file and then moved into place, and
+// an existing blob is never rewritten.
+//
+// Older files may still hold absolute paths; those render as before and are
+// imported into the store the next time they are saved.
+final class ImageStore {
+    static final String REFERENCE_PREFIX = "sha256:";
+    private static final int MAX_REMEMBERED_IMPORTS = 4096;
+
+    private static final ImageStore SHARED = new ImageStore(defaultDirectory());
+
+    private final File directory;
+    // Originals already imported, by absolute path, size and modification time, so that
+    // many resumes pointing at the same photo decode and hash it only once
+    private final LinkedHashMap<String, String> imported = new LinkedHashMap<>(16, 0.75f, true);
+
+    ImageStore(File directory) {
+        this.directory = directory;
+    }
+
+    static ImageStore shared() {
+        return SHARED;
+    }
+
+    static File defaultDirectory() {
+        String dir = System.getProperty("resumebuilder.images.dir");
+        return dir == null || dir.isEmpty() ? new File(AutosaveService.homeDirectory(), "images") : new File(dir);
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    static boolean isReference(String path) {
+        return path != null && path.startsWith(REFERENCE_PREFIX);
+    }
+
+    // Hex hash named by a reference, or null if it is not a well-formed reference
+    static String hashOf(String reference) {
+        if (!isReference(reference)) {
+            return null;
+        }
+        String hash = reference.substring(REFERENCE_PREFIX.length());
+        return hash.matches("[0-9a-f]{64}") ? hash : null;
+    }
+
+    // Scales the photo to print size and stores it; returns its reference
+    String importImage(File source) throws IOException {
+        if (!source.isFile()) {
+            throw new FileNotFoundException(source.getPath());
+        }
+        File file = source.getAbsoluteFile();
+        String key = file.getPath() + "|" + file.length() + "|" + file.lastModified();
+        String known;
+        synchronized (imported) {
+            known = imported.get(key);
+        }
+        if (known != null && contains(known)) {
+            return known;
+        }
+
+        byte[] data = ProfileImageCache.decodeAndScale(source);
+        if (data == null) {
+            // Not readable by ImageIO; keep the original for iText to decode
+            data = Files.readAllBytes(source.toPath());
+        }
+        String reference = put(data);
+        synchronized (imported) {
+            imported.put(key, reference);
+            Iterator<String> eldest = imported.keySet().iterator();
+            while (imported.size() > MAX_REMEMBERED_IMPORTS) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return reference;
+    }
+
+    // Stores already-prepared image bytes; returns their reference
+    String put(byte[] data) throws IOException {
+        String hash = ProfileImageCache.toHex(ProfileImageCache.sha256(data));
+        File target = new File(directory, hash);
+        if (!target.isFile()) {
+            Files.createDirectories(directory.toPath());
+            Path temp = Files.createTempFile(directory.toPath(), "image", ".tmp");
+            try {
+                Files.write(temp, data);
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return REFERENCE_PREFIX + hash;
+    }
+
+    boolean contains(String reference) {
+        File file = resolve(reference);
+        return file != null && file.isFile();
+    }
+
+    // File holding the referenced blob (which may be missing), or null for a malformed reference
+    File resolve(String reference) {
+        String hash = hashOf(reference);
+        return hash == null ? null : new File(directory, hash);
+    }
+
+    byte[] read(String reference) throws IOException {
+        File file = resolve(reference);
+        if (file == null) {
+            throw new IOException("Invalid image reference: " + reference);
+        }
+        if (!file.isFile()) {
+            throw new FileNotFoundException("Image " + reference + " is not in " + directory);
+        }
+        return Files.readAllBytes(file.toPath());
+    }
+}
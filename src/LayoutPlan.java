@@ -0,0 +1,85 @@
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A TemplateSpec compiled for rendering: fonts created, column widths,
+// paddings and rules resolved and every spacing value looked up once.
+// Plans are immutable and cached per template, so all a render does is walk
+// the plan and bind resume data to it. Each template has a second plan with
+// embedded TrueType fonts for resumes the standard fonts cannot show.
+final class LayoutPlan {
+    private static final ConcurrentHashMap<String, LayoutPlan> CACHE = new ConcurrentHashMap<>();
+
+    static final class ColumnPlan {
+        // Negative paddings keep iText's default cell padding on that side
+        final float paddingLeft;
+        final float paddingRight;
+        final String rule;
+        final List<TemplateSpec.Section> sections;
+
+        ColumnPlan(float paddingLeft, float paddingRight, String rule, List<TemplateSpec.Section> sections) {
+            this.paddingLeft = paddingLeft;
+            this.paddingRight = paddingRight;
+            this.rule = rule;
+            this.sections = sections;
+        }
+    }
+
+    final String template;
+    final boolean embeddedFonts;
+    final PdfStyles styles;
+    final float[] columnWidths;
+    final ColumnPlan[] columns;
+    final int sectionCount;
+    private final float[] gaps;
+    private final String[] titles;
+
+    private LayoutPlan(TemplateSpec spec, boolean embeddedFonts) {
+        template = spec.name;
+        this.embeddedFonts = embeddedFonts;
+        styles = new PdfStyles(spec, embeddedFonts);
+
+        gaps = new float[TemplateSpec.Gap.values().length];
+        for (TemplateSpec.Gap gap : TemplateSpec.Gap.values()) {
+            gaps[gap.ordinal()] = spec.gap(gap);
+        }
+        titles = new String[TemplateSpec.Section.values().length];
+        for (TemplateSpec.Section section : TemplateSpec.Section.values()) {
+            titles[section.ordinal()] = spec.title(section);
+        }
+
+        // The gutter separates neighbouring columns; outer edges keep the cell default
+        int count = spec.columns.size();
+        float gutter = gap(TemplateSpec.Gap.COLUMN_GUTTER);
+        columnWidths = new float[count];
+        columns = new ColumnPlan[count];
+        int sections = 0;
+        for (int i = 0; i < count; i++) {
+            TemplateSpec.Column column = spec.columns.get(i);
+            columnWidths[i] = column.width;
+            columns[i] = new ColumnPlan(i > 0 ? gutter : -1, i < count - 1 ? gutter : -1,
+                spec.rule.repeat(column.ruleRepeat), column.sections);
+            sections += column.sections.size();
+        }
+        sectionCount = sections;
+    }
+
+    // Shared plan for a template, compiled on first use
+    static LayoutPlan forTemplate(String template, boolean embeddedFonts) {
+        TemplateSpec spec = TemplateSpec.forName(template);
+        String key = embeddedFonts ? spec.name + "|embedded" : spec.name;
+        return CACHE.computeIfAbsent(key, name -> new LayoutPlan(spec, embeddedFonts));
+    }
+
+    // Fresh, unshared plan; only used to measure what sharing saves
+    static LayoutPlan compile(String template, boolean embeddedFonts) {
+        return new LayoutPlan(TemplateSpec.forName(template), embeddedFonts);
+    }
+
+    float gap(TemplateSpec.Gap gap) {
+        return gaps[gap.ordinal()];
+    }
+
+    String title(TemplateSpec.Section section) {
+        return titles[section.ordinal()];
+    }
+}
@@ -0,0 +1,77 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Growable in-memory buffer for a rendered PDF.
+// Buffers are recycled through a small pool so that a service rendering many
+// documents reuses already-grown arrays instead of allocating and regrowing a
+// new one per request. close() returns the buffer to the pool; the contents
+// must not be used afterwards. Closing stream() (as iText does when the
+// document ends) does not release anything.
+final class PdfBuffer implements AutoCloseable {
+    private static final int POOL_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    // Buffers that grew past this are dropped rather than pinned in the pool
+    private static final int MAX_POOLED_CAPACITY = 4 * 1024 * 1024;
+
+    private static final ArrayBlockingQueue<PdfBuffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final class Sink extends ByteArrayOutputStream {
+        Sink() {
+            super(INITIAL_CAPACITY);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    private final Sink sink = new Sink();
+    private boolean released = false;
+
+    private PdfBuffer() {
+    }
+
+    static PdfBuffer acquire() {
+        PdfBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            return new PdfBuffer();
+        }
+        buffer.released = false;
+        return buffer;
+    }
+
+    OutputStream stream() {
+        return sink;
+    }
+
+    int size() {
+        return sink.size();
+    }
+
+    // Direct view of the backing array; only the first size() bytes are valid
+    byte[] array() {
+        return sink.array();
+    }
+
+    byte[] toByteArray() {
+        return sink.toByteArray();
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        sink.writeTo(out);
+    }
+
+    @Override
+    public void close() {
+        if (released) {
+            return;
+        }
+        released = true;
+        sink.reset();
+        if (sink.array().length <= MAX_POOLED_CAPACITY) {
+            POOL.offer(this);
+        }
+    }
+}
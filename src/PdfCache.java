@@ -0,0 +1,223 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Finished PDFs keyed by a fingerprint of everything the layout consumes.
+// The fingerprint is a SHA-256 over every field value, the template name, the
+// layout chosen (table or streaming) and a digest of the (downsampled)
+// profile photo, so an unchanged resume maps to the same key however often it
+// is exported. Entries live in a byte-bounded LRU in memory and, when
+// -Dresumebuilder.pdfCache.dir is set, in a size-bounded directory on disk
+// whose least recently used files are deleted first. A hit skips layout
+// entirely and only copies bytes.
+class PdfCache {
+    // Bump whenever the layout changes, so stale PDFs on disk are never served
+    private static final String LAYOUT_VERSION = "layout-4";
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_MAX_DISK_BYTES = 256L * 1024 * 1024;
+    private static final PdfCache SHARED = new PdfCache(DEFAULT_MAX_BYTES, diskDirectoryFromProperties(), DEFAULT_MAX_DISK_BYTES);
+
+    static {
+        RenderMetrics metrics = RenderMetrics.shared();
+        metrics.gauge("pdf.cache.hits", SHARED::getHits);
+        metrics.gauge("pdf.cache.disk_hits", SHARED::getDiskHits);
+        metrics.gauge("pdf.cache.misses", SHARED::getMisses);
+        metrics.gauge("pdf.cache.bytes", SHARED::getCachedBytes);
+    }
+
+    private final long maxBytes;
+    private final File diskDirectory;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+    // Bytes on disk; -1 until the directory has been scanned
+    private long diskBytes = -1;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    PdfCache(long maxBytes, File diskDirectory, long maxDiskBytes) {
+        this.maxBytes = maxBytes;
+        this.diskDirectory = diskDirectory;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+    static PdfCache shared() {
+        return SHARED;
+    }
+
+    private static File diskDirectoryFromProperties() {
+        String dir = System.getProperty("resumebuilder.pdfCache.dir");
+        return dir == null || dir.isEmpty() ? null : new File(dir);
+    }
+
+    // Hex SHA-256 of the field values, template, font mode, layout and profile image content
+    static String fingerprint(Resume resume) {
+        MessageDigest digest = newDigest();
+        update(digest, LAYOUT_VERSION);
+        for (String field : Resume.FIELD_NAMES) {
+            update(digest, field);
+            update(digest, resume.get(field));
+        }
+        update(digest, resume.getTemplate());
+        update(digest, EmbeddedFonts.mode());
+        // -Dresumebuilder.pdf.streaming can force either layout for the same resume
+        update(digest, ResumePdfRenderer.useStreamingLayout(resume) ? "streaming" : "table");
+        update(digest, imageDigest(resume.getProfileImagePath()));
+        return ProfileImageCache.toHex(digest.digest());
+    }
+
+    // Digest of the image as it would be embedded; unreadable images fingerprint by path
+    // so that the PDF rendered without them is not confused with the one that has them
+    private static String imageDigest(String path) {
+        if (path == null || path.isEmpty()) {
+            return "none";
+        }
+        if (ImageStore.isReference(path)) {
+            // Stored blobs are named by the hash of their content
+            return ImageStore.shared().contains(path) ? ImageStore.hashOf(path) : "unreadable:" + path;
+        }
+        try {
+            byte[] scaled = ProfileImageCache.shared().getScaledBytes(path);
+            byte[] content = scaled != null ? scaled : Files.readAllBytes(Paths.get(path));
+            return ProfileImageCache.toHex(ProfileImageCache.sha256(content));
+        } catch (IOException e) {
+            return "unreadable:" + path;
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        // Length prefix keeps ("ab","c") and ("a","bc") apart
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cached PDF for this fingerprint, or null; the array must not be modified
+    byte[] get(String fingerprint) {
+        byte[] data = getFromMemory(fingerprint);
+        if (data != null) {
+            hits.incrementAndGet();
+            return data;
+        }
+
+        if (diskDirectory != null) {
+            File diskEntry = new File(diskDirectory, fingerprint + ".pdf");
+            try {
+                data = Files.readAllBytes(diskEntry.toPath());
+                diskEntry.setLastModified(System.currentTimeMillis());
+                diskHits.incrementAndGet();
+                putInMemory(fingerprint, data);
+                return data;
+            } catch (NoSuchFileException e) {
+                // Not cached on disk either
+            } catch (IOException e) {
+                System.err.println("Could not read PDF cache entry: " + e.getMessage());
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    void put(String fingerprint, byte[] pdf) {
+        putInMemory(fingerprint, pdf);
+        if (diskDirectory != null) {
+            writeToDisk(new File(diskDirectory, fingerprint + ".pdf"), pdf);
+        }
+    }
+
+    private synchronized byte[] getFromMemory(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void putInMemory(String key, byte[] data) {
+        if (data.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, data);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += data.length;
+
+        // Evict least recently used entries until we are back under budget
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    private void writeToDisk(File target, byte[] data) {
+        try {
+            Files.createDirectories(diskDirectory.toPath());
+            Path temp = Files.createTempFile(diskDirectory.toPath(), "pdf", ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            trimDisk(data.length);
+        } catch (IOException e) {
+            // The disk tier is best effort
+            System.err.println("Could not write PDF cache entry: " + e.getMessage());
+        }
+    }
+
+    // Deletes the least recently used files once the directory exceeds its budget
+    private synchronized void trimDisk(long added) {
+        if (diskBytes >= 0) {
+            diskBytes += added;
+            if (diskBytes <= maxDiskBytes) {
+                return;
+            }
+        }
+        File[] files = diskDirectory.listFiles((dir, name) -> name.endsWith(".pdf"));
+        if (files == null) {
+            return;
+        }
+        diskBytes = 0;
+        for (File file : files) {
+            diskBytes += file.length();
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (diskBytes <= maxDiskBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                diskBytes -= length;
+            }
+        }
+    }
+
+    long getHits() { return hits.get(); }
+    long getDiskHits() { return diskHits.get(); }
+    long getMisses() { return misses.get(); }
+
+    synchronized long getCachedBytes() {
+        return currentBytes;
+    }
+
+    String getStatsSummary() {
+        return String.format("%d hits, %d disk hits, %d misses, %.1f KB cached",
+            getHits(), getDiskHits(), getMisses(), getCachedBytes() / 1024.0);
+    }
+}
@@ -0,0 +1,78 @@
+import java.io.*;
+import java.nio.file.*;
+import javax.swing.SwingWorker;
+
+// Renders a resume to a PDF file on a background thread.
+// Output goes to a temporary file next to the target and is moved into place
+// only when rendering completes, so a cancelled or failed export never leaves
+// a truncated PDF behind. Progress is published through setProgress() and the
+// "stage" property.
+class PdfExportWorker extends SwingWorker<File, Void> {
+    private static final RenderMetrics.Histogram EXPORT_TIME = RenderMetrics.shared().timer("export.total");
+    private static final RenderMetrics.Histogram COMMIT_TIME = RenderMetrics.shared().timer("export.commit");
+
+    private final Resume resume;
+    private final File target;
+    private final ResumePdfRenderer renderer = new ResumePdfRenderer(true, PdfCache.shared());
+
+    PdfExportWorker(Resume resume, File target) {
+        this.resume = resume;
+        this.target = target;
+    }
+
+    File getTarget() {
+        return target;
+    }
+
+    @Override
+    protected File doInBackground() throws Exception {
+        long start = System.nanoTime();
+        try {
+            File file = export();
+            EXPORT_TIME.recordSince(start);
+            return file;
+        } catch (ResumePdfRenderer.RenderCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            EXPORT_TIME.fail();
+            throw e;
+        }
+    }
+
+    private File export() throws Exception {
+        File directory = target.getAbsoluteFile().getParentFile();
+        File partial = File.createTempFile("resume", ".pdf.part", directory);
+        boolean completed = false;
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(partial))) {
+                renderer.render(resume, out, new ResumePdfRenderer.ProgressListener() {
+                    public void progress(int percent, String stage) {
+                        setProgress(percent);
+                        firePropertyChange("stage", null, stage);
+                    }
+
+                    public boolean isCancelled() {
+                        return PdfExportWorker.this.isCancelled();
+                    }
+                });
+            }
+            long commitStart = System.nanoTime();
+            moveIntoPlace(partial.toPath(), target.toPath());
+            COMMIT_TIME.recordSince(commitStart);
+            completed = true;
+            return target;
+        } finally {
+            if (!completed) {
+                partial.delete();
+            }
+        }
+    }
+
+    static void moveIntoPlace(Path source, Path destination) throws IOException {
+        try {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
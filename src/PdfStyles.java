@@ -0,0 +1,49 @@
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.BaseFont;
+
+// Fonts of one template, created from its TemplateSpec when the template's
+// LayoutPlan is compiled. Instances are shared by every render on every
+// thread, so nothing may call a mutator (setSize, setColor, ...) on these
+// fonts after construction. Embedded styles use the shared TrueType BaseFonts
+// of EmbeddedFonts and fall back to the standard font of any role whose file
+// is missing.
+final class PdfStyles {
+    final Font nameFont;
+    final Font titleFont;
+    final Font sectionHeaderFont;
+    final Font sectionRuleFont;
+    final Font jobTitleFont;
+    final Font companyFont;
+    final Font dateFont;
+    final Font normalFont;
+    final Font contactFont;
+    final Font skillLevelFont;
+
+    PdfStyles(TemplateSpec spec, boolean embedded) {
+        nameFont = font(spec, TemplateSpec.Role.NAME, embedded);
+        titleFont = font(spec, TemplateSpec.Role.TITLE, embedded);
+        sectionHeaderFont = font(spec, TemplateSpec.Role.SECTION_HEADER, embedded);
+        sectionRuleFont = font(spec, TemplateSpec.Role.SECTION_RULE, embedded);
+        jobTitleFont = font(spec, TemplateSpec.Role.JOB_TITLE, embedded);
+        companyFont = font(spec, TemplateSpec.Role.COMPANY, embedded);
+        dateFont = font(spec, TemplateSpec.Role.DATE, embedded);
+        normalFont = font(spec, TemplateSpec.Role.NORMAL, embedded);
+        contactFont = font(spec, TemplateSpec.Role.CONTACT, embedded);
+        skillLevelFont = font(spec, TemplateSpec.Role.SKILL_LEVEL, embedded);
+    }
+
+    private static Font font(TemplateSpec spec, TemplateSpec.Role role, boolean embedded) {
+        TemplateSpec.FontSpec font = spec.fonts.get(role);
+        if (embedded) {
+            BaseFont base = EmbeddedFonts.baseFont(font.family, font.style);
+            if (base != null) {
+                // A real bold/italic face must not be emboldened or slanted again by iText
+                int style = EmbeddedFonts.hasStyle(font.family, font.style)
+                    ? font.style & ~Font.BOLDITALIC
+                    : font.style;
+                return new Font(base, font.size, style, font.color);
+            }
+        }
+        return new Font(font.family, font.size, font.style, font.color);
+    }
+}
@@ -0,0 +1,89 @@
+import javax.swing.Timer;
+
+// Coalesces bursts of document events into a single preview render.
+// Every event restarts an idle timer; a render happens once typing pauses,
+// or at the latest maxLatencyMs after the first pending event so that
+// continuous input (long pastes, key repeat) still refreshes the preview.
+// All methods must be called on the Event Dispatch Thread.
+class PreviewScheduler {
+    private final Runnable renderer;
+    private final Timer timer;
+    private final int maxLatencyMs;
+
+    private int pendingEvents = 0;
+    private long firstPendingAt = 0;
+
+    // Statistics
+    private long renderCount = 0;
+    private long droppedEvents = 0;
+    private long lastRenderNanos = 0;
+    private long maxRenderNanos = 0;
+    private long totalRenderNanos = 0;
+    private int lastCoalesced = 0;
+    private Runnable statsListener;
+
+    PreviewScheduler(int idleDelayMs, int maxLatencyMs, Runnable renderer) {
+        this.renderer = renderer;
+        this.maxLatencyMs = maxLatencyMs;
+        this.timer = new Timer(idleDelayMs, e -> flush());
+        this.timer.setRepeats(false);
+        this.timer.setCoalesce(true);
+    }
+
+    // Called for every document event; schedules a render instead of doing one
+    void request() {
+        long now = System.currentTimeMillis();
+        if (pendingEvents == 0) {
+            firstPendingAt = now;
+        }
+        pendingEvents++;
+
+        // Keep postponing while the user types, but never past the latency cap
+        if (now - firstPendingAt < maxLatencyMs || !timer.isRunning()) {
+            timer.restart();
+        }
+    }
+
+    // Render immediately, folding in whatever events are still pending
+    void flush() {
+        timer.stop();
+        int coalesced = pendingEvents;
+        pendingEvents = 0;
+
+        long start = System.nanoTime();
+        renderer.run();
+        long elapsed = System.nanoTime() - start;
+
+        renderCount++;
+        lastCoalesced = coalesced;
+        if (coalesced > 1) {
+            droppedEvents += coalesced - 1;
+        }
+        lastRenderNanos = elapsed;
+        totalRenderNanos += elapsed;
+        maxRenderNanos = Math.max(maxRenderNanos, elapsed);
+
+        if (statsListener != null) {
+            statsListener.run();
+        }
+    }
+
+    void setStatsListener(Runnable listener) {
+        this.statsListener = listener;
+    }
+
+    long getRenderCount() { return renderCount; }
+    long getDroppedEvents() { return droppedEvents; }
+    int getLastCoalesced() { return lastCoalesced; }
+    double getLastRenderMillis() { return lastRenderNanos / 1_000_000.0; }
+    double getMaxRenderMillis() { return maxRenderNanos / 1_000_000.0; }
+
+    double getAverageRenderMillis() {
+        return renderCount == 0 ? 0 : totalRenderNanos / 1_000_000.0 / renderCount;
+    }
+
+    String getStatsSummary() {
+        return String.format("Rendu: %.2f ms (moy. %.2f, max %.2f) | %d rendus, %d événements fusionnés",
+            getLastRenderMillis(), getAverageRenderMillis(), getMaxRenderMillis(), renderCount, droppedEvents);
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.*;
+import java.util.function.Function;
+
+// Section-level model of the live preview.
+// Each section caches its rendered lines and is re-rendered only when one of
+// its source fields changes. The new lines are compared with the cached ones
+// and only the differing run in the middle is replaced in the PreviewView,
+// so the cost of a refresh is proportional to the edit rather than to the
+// size of the resume.
+class PreviewSections {
+    private static final String RULE = "──────────────────────────────────────────────\n";
+    private static final String[] NO_LINES = new String[0];
+
+    private static final class Section {
+        final Function<Function<String, String>, String> renderer;
+        String[] lines = NO_LINES;
+        boolean dirty = true;
+
+        Section(Function<Function<String, String>, String> renderer) {
+            this.renderer = renderer;
+        }
+    }
+
+    private final List<Section> sections = new ArrayList<>();
+    private final Map<String, List<Section>> sectionsByField = new HashMap<>();
+    private int lastPatchedSections = 0;
+    private int lastReplacedLines = 0;
+
+    PreviewSections() {
+        addSection(PreviewSections::renderHeader, "fullName");
+        addSection(PreviewSections::renderPersonalInfo,
+            "email", "phone", "address", "location", "linkedin", "github", "portfolio");
+        addTextSection("📝 RÉSUMÉ PROFESSIONNEL", "summary");
+        addTextSection("🧑‍💼 EXPÉRIENCE", "experience");
+        addTextSection("🎓 FORMATION", "education");
+        addTextSection("🛠️ COMPÉTENCES", "skills");
+        addTextSection("🚀 PROJETS", "projects");
+        addTextSection("🏆 CERTIFICATIONS & RÉALISATIONS", "certifications");
+    }
+
+    private void addSection(Function<Function<String, String>, String> renderer, String... sourceFields) {
+        Section section = new Section(renderer);
+        sections.add(section);
+        for (String field : sourceFields) {
+            sectionsByField.computeIfAbsent(field, k -> new ArrayList<>()).add(section);
+        }
+    }
+
+    private void addTextSection(String title, String field) {
+        addSection(values -> renderTextSection(title, values.apply(field)), field);
+    }
+
+    // Mark the sections fed by this field as needing a re-render
+    void invalidate(String fieldName) {
+        List<Section> affected = sectionsByField.get(fieldName);
+        if (affected != null) {
+            for (Section section : affected) {
+                section.dirty = true;
+            }
+        }
+    }
+
+    // Re-render dirty sections and replace their changed lines in the view.
+    // The view must contain exactly the lines previously produced by this model.
+    void patch(PreviewView view, Function<String, String> values) {
+        int line = 0;
+        int patched = 0;
+        int replaced = 0;
+        for (Section section : sections) {
+            if (section.dirty) {
+                String[] lines = splitLines(section.renderer.apply(values));
+                section.dirty = false;
+                int changed = replaceChangedLines(view, line, section.lines, lines);
+                if (changed > 0) {
+                    patched++;
+                    replaced += changed;
+                }
+                section.lines = lines;
+            }
+            line += section.lines.length;
+        }
+        lastPatchedSections = patched;
+        lastReplacedLines = replaced;
+    }
+
+    // Replaces only the lines between the common prefix and suffix; returns how many lines were touched
+    private static int replaceChangedLines(PreviewView view, int start, String[] before, String[] after) {
+        int prefix = 0;
+        int limit = Math.min(before.length, after.length);
+        while (prefix < limit && before[prefix].equals(after[prefix])) {
+            prefix++;
+        }
+        if (prefix == before.length && prefix == after.length) {
+            return 0;
+        }
+        int suffix = 0;
+        while (suffix < limit - prefix
+                && before[before.length - 1 - suffix].equals(after[after.length - 1 - suffix])) {
+            suffix++;
+        }
+        int removed = before.length - prefix - suffix;
+        List<String> added = Arrays.asList(after).subList(prefix, after.length - suffix);
+        view.replaceLines(start + prefix, removed, added);
+        return Math.max(removed, added.size());
+    }
+
+    // Section text always ends with a newline, which does not start another line
+    private static String[] splitLines(String text) {
+        if (text.isEmpty()) {
+            return NO_LINES;
+        }
+        String[] lines = text.split("\n", -1);
+        return text.endsWith("\n") ? Arrays.copyOf(lines, lines.length - 1) : lines;
+    }
+
+    int getLastPatchedSections() {
+        return lastPatchedSections;
+    }
+
+    int getLastReplacedLines() {
+        return lastReplacedLines;
+    }
+
+    // Full, uncached rendering of the preview
+    static String generatePreviewText(Function<String, String> values) {
+        PreviewSections model = new PreviewSections();
+        StringBuilder preview = new StringBuilder();
+        for (Section section : model.sections) {
+            preview.append(section.renderer.apply(values));
+        }
+        return preview.toString();
+    }
+
+    private static String renderHeader(Function<String, String> values) {
+        String upperName = values.apply("fullName").toUpperCase();
+        int boxWidth = Math.max(upperName.length() + 10, 56);
+        String boxTop = "╔" + "═".repeat(boxWidth - 2) + "╗\n";
+        String boxBottom = "╚" + "═".repeat(boxWidth - 2) + "╝\n";
+        String nameLine = String.format("║  %-" + (boxWidth - 4) + "s  ║\n", upperName);
+        return boxTop + nameLine + boxBottom + "\n\n";
+    }
+
+    private static String renderPersonalInfo(Function<String, String> values) {
+        StringBuilder preview = new StringBuilder();
+        preview.append("👤 INFORMATIONS PERSONNELLES\n");
+        preview.append(RULE);
+        appendLine(preview, "✉ Email: ", values.apply("email"));
+        appendLine(preview, "☎ Téléphone: ", values.apply("phone"));
+        appendLine(preview, "🏠 Adresse: ", values.apply("address"));
+        appendLine(preview, "📍 Ville/Code Postal: ", values.apply("location"));
+        appendLine(preview, "🔗 LinkedIn: ", values.apply("linkedin"));
+        appendLine(preview, "🐙 GitHub: ", values.apply("github"));
+        appendLine(preview, "🌐 Portfolio: ", values.apply("portfolio"));
+        preview.append("\n");
+        return preview.toString();
+    }
+
+    private static void appendLine(StringBuilder preview, String label, String value) {
+        if (!value.isEmpty()) preview.append(label).append(value).append("\n");
+    }
+
+    private static String renderTextSection(String title, String value) {
+        if (value.isEmpty()) {
+            return "";
+        }
+        return title + "\n" + RULE + value + "\n\n";
+    }
+}
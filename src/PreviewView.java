@@ -0,0 +1,192 @@
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Map;
+import javax.swing.*;
+
+// Read-only, virtualized view of the preview text.
+// Lines are stored individually and only the ones intersecting the clip are
+// painted, so painting and scrolling cost the same for a ten-line resume and
+// for one with tens of thousands of lines. Updates replace a range of lines:
+// only that range (or, when the line count changes, the rest of the visible
+// area) is repainted, and the component is revalidated only when its size
+// actually changes. Line widths are measured once, when a line is inserted.
+// Must be used on the Event Dispatch Thread.
+class PreviewView extends JComponent implements Scrollable {
+    private static final class Line {
+        final String text;
+        final int width;
+
+        Line(String text, int width) {
+            this.text = text;
+            this.width = width;
+        }
+    }
+
+    private final ArrayList<Line> lines = new ArrayList<>();
+    private int maxWidth = 0;
+    private FontMetrics metrics;
+
+    PreviewView(Font font) {
+        setFont(font);
+        setOpaque(true);
+        setFocusable(true);
+
+        // The text cannot be selected, but Ctrl+C copies all of it
+        int shortcut = GraphicsEnvironment.isHeadless()
+            ? java.awt.event.InputEvent.CTRL_DOWN_MASK
+            : Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, shortcut), "copy");
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(getText()), null);
+            }
+        });
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+            }
+        });
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        metrics = getFontMetrics(font);
+        if (lines != null && !lines.isEmpty()) {
+            // Widths depend on the font; measure everything again
+            ArrayList<String> text = new ArrayList<>(lines.size());
+            for (Line line : lines) {
+                text.add(line.text);
+            }
+            lines.clear();
+            maxWidth = 0;
+            replaceLines(0, 0, text);
+        }
+    }
+
+    // Replaces removed lines starting at start with the given lines
+    void replaceLines(int start, int removed, java.util.List<String> added) {
+        int oldCount = lines.size();
+        int oldMaxWidth = maxWidth;
+        boolean maxRemoved = false;
+        java.util.List<Line> range = lines.subList(start, start + removed);
+        for (Line line : range) {
+            maxRemoved |= line.width >= maxWidth;
+        }
+        range.clear();
+
+        ArrayList<Line> measured = new ArrayList<>(added.size());
+        for (String text : added) {
+            Line line = new Line(text, metrics.stringWidth(text));
+            measured.add(line);
+            maxWidth = Math.max(maxWidth, line.width);
+        }
+        lines.addAll(start, measured);
+
+        if (maxRemoved) {
+            // The widest line may be gone; rare enough that a rescan of the widths is fine
+            maxWidth = 0;
+            for (Line line : lines) {
+                maxWidth = Math.max(maxWidth, line.width);
+            }
+        }
+
+        if (lines.size() != oldCount || maxWidth != oldMaxWidth) {
+            revalidate();
+        }
+        Insets insets = getInsets();
+        int lineHeight = metrics.getHeight();
+        int top = insets.top + start * lineHeight;
+        int bottom = lines.size() == oldCount
+            ? insets.top + (start + added.size()) * lineHeight
+            : Math.max(getHeight(), insets.top + Math.max(oldCount, lines.size()) * lineHeight);
+        repaint(0, top, getWidth(), bottom - top);
+    }
+
+    int getLineCount() {
+        return lines.size();
+    }
+
+    String getText() {
+        StringBuilder text = new StringBuilder();
+        for (Line line : lines) {
+            text.append(line.text).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Insets insets = getInsets();
+        return new Dimension(insets.left + maxWidth + insets.right,
+            insets.top + lines.size() * metrics.getHeight() + insets.bottom);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        Graphics2D g2 = (Graphics2D) g;
+        Object hints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (hints instanceof Map) {
+            g2.addRenderingHints((Map<?, ?>) hints);
+        }
+        g2.setFont(getFont());
+        g2.setColor(getForeground());
+
+        // Only the lines intersecting the clip are drawn
+        Insets insets = getInsets();
+        int lineHeight = metrics.getHeight();
+        int first = Math.max(0, (clip.y - insets.top) / lineHeight);
+        int last = Math.min(lines.size() - 1, (clip.y + clip.height - insets.top) / lineHeight);
+        int baseline = insets.top + first * lineHeight + metrics.getAscent();
+        for (int i = first; i <= last; i++, baseline += lineHeight) {
+            g2.drawString(lines.get(i).text, insets.left, baseline);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? metrics.getHeight() : metrics.charWidth('m');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL) {
+            return Math.max(metrics.getHeight(), visibleRect.height - metrics.getHeight());
+        }
+        return visibleRect.width;
+    }
+
+    // Stretch to the viewport when the text is smaller, so the background fills it
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        return parent instanceof JViewport && parent.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,253 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+// Decodes and downsamples profile photos once, then serves the compact result.
+// Entries are keyed by absolute path, file size and modification time, kept in
+// a byte-bounded LRU in memory and, when a cache directory is configured with
+// -Dresumebuilder.imageCache.dir, also on disk. The stored images are scaled
+// to the size they are printed at, so PDFs embed a few tens of KB instead of
+// the original camera photo. Photos in the ImageStore ("sha256:<hex>") are
+// already scaled and are only read, keyed by their hash.
+class ProfileImageCache {
+    // Printed size in the PDF (points) and the resolution we keep for it
+    static final float PRINT_SIZE_PT = 120f;
+    private static final int PRINT_DPI = 300;
+    static final int TARGET_PIXELS = Math.round(PRINT_SIZE_PT / 72f * PRINT_DPI);
+
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    private static final ProfileImageCache SHARED = new ProfileImageCache(DEFAULT_MAX_BYTES, diskDirectoryFromProperties());
+
+    static {
+        RenderMetrics metrics = RenderMetrics.shared();
+        metrics.gauge("image.cache.hits", SHARED::getHits);
+        metrics.gauge("image.cache.disk_hits", SHARED::getDiskHits);
+        metrics.gauge("image.cache.misses", SHARED::getMisses);
+        metrics.gauge("image.cache.bytes", SHARED::getCachedBytes);
+    }
+
+    private static final RenderMetrics.Histogram DECODE_TIME = RenderMetrics.shared().timer("image.decode");
+
+    private final long maxBytes;
+    private final File diskDirectory;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ProfileImageCache(long maxBytes, File diskDirectory) {
+        this.maxBytes = maxBytes;
+        this.diskDirectory = diskDirectory;
+    }
+
+    static ProfileImageCache shared() {
+        return SHARED;
+    }
+
+    private static File diskDirectoryFromProperties() {
+        String dir = System.getProperty("resumebuilder.imageCache.dir");
+        return dir == null || dir.isEmpty() ? null : new File(dir);
+    }
+
+    // A fresh iText image for this photo, scaled for print. iText images are
+    // mutable, so a new instance is built from the cached bytes on every call.
+    com.itextpdf.text.Image getImage(String path) throws IOException, com.itextpdf.text.BadElementException {
+        byte[] data = getScaledBytes(path);
+        if (data == null) {
+            // Format not readable by ImageIO; let iText handle the original
+            return com.itextpdf.text.Image.getInstance(path);
+        }
+        return com.itextpdf.text.Image.getInstance(data);
+    }
+
+    // Encoded, downsampled image bytes, or null if the file cannot be decoded
+    byte[] getScaledBytes(String path) throws IOException {
+        if (ImageStore.isReference(path)) {
+            byte[] stored = getFromMemory(path);
+            if (stored != null) {
+                hits.incrementAndGet();
+                return stored;
+            }
+            stored = ImageStore.shared().read(path);
+            diskHits.incrementAndGet();
+            putInMemory(path, stored);
+            return stored;
+        }
+
+        File file = new File(path).getAbsoluteFile();
+        if (!file.isFile()) {
+            throw new FileNotFoundException(path);
+        }
+        String key = file.getPath() + "|" + file.length() + "|" + file.lastModified();
+
+        byte[] data = getFromMemory(key);
+        if (data != null) {
+            hits.incrementAndGet();
+            return data;
+        }
+
+        File diskEntry = diskDirectory == null ? null : new File(diskDirectory, sha256(key));
+        if (diskEntry != null && diskEntry.isFile()) {
+            data = Files.readAllBytes(diskEntry.toPath());
+            diskHits.incrementAndGet();
+            putInMemory(key, data);
+            return data;
+        }
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        data = decodeAndScale(file);
+        DECODE_TIME.recordSince(start);
+        if (data == null) {
+            return null;
+        }
+        putInMemory(key, data);
+        if (diskEntry != null) {
+            writeToDisk(diskEntry, data);
+        }
+        return data;
+    }
+
+    private synchronized byte[] getFromMemory(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void putInMemory(String key, byte[] data) {
+        if (data.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, data);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += data.length;
+
+        // Evict least recently used entries until we are back under budget
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    private void writeToDisk(File target, byte[] data) {
+        try {
+            Files.createDirectories(diskDirectory.toPath());
+            Path temp = Files.createTempFile(diskDirectory.toPath(), "img", ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The disk tier is best effort
+            System.err.println("Could not write image cache entry: " + e.getMessage());
+        }
+    }
+
+    // Downsample to TARGET_PIXELS on the longest side and re-encode (JPEG, or PNG when transparent)
+    static byte[] decodeAndScale(File file) throws IOException {
+        BufferedImage source = ImageIO.read(file);
+        if (source == null) {
+            return null;
+        }
+        return encode(scale(source, TARGET_PIXELS));
+    }
+
+    static BufferedImage scale(BufferedImage source, int maxPixels) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean alpha = source.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        // Halve repeatedly for quality, then do the final bicubic step
+        while (Math.max(width, height) > maxPixels) {
+            double factor = Math.max(0.5, (double) maxPixels / Math.max(width, height));
+            width = Math.max(1, (int) Math.round(width * factor));
+            height = Math.max(1, (int) Math.round(height * factor));
+            current = resize(current, width, height, type);
+        }
+        if (current == source && source.getType() != type) {
+            current = resize(source, width, height, type);
+        }
+        return current;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.9f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    static String sha256(String text) {
+        return toHex(sha256(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    long getHits() { return hits.get(); }
+    long getDiskHits() { return diskHits.get(); }
+    long getMisses() { return misses.get(); }
+
+    synchronized long getCachedBytes() {
+        return currentBytes;
+    }
+
+    String getStatsSummary() {
+        return String.format("%d hits, %d disk hits, %d misses, %.1f KB cached",
+            getHits(), getDiskHits(), getMisses(), getCachedBytes() / 1024.0);
+    }
+}
@@ -0,0 +1,435 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.*;
+
+// Process-wide timers, counters, histograms and gauges for every stage of the
+// pipeline: field snapshotting, parsing, preview updates, image loading, PDF
+// layout and file output, in the GUI, batch runs and the render service alike.
+//
+// Timers are histograms of durations with fixed buckets, so recording is a few
+// lock-free adds and percentiles are estimated from the buckets on export.
+// Stages hold on to their Histogram and record with recordSince(start);
+// failures are counted per stage with fail().
+//
+// Everything is readable over JMX (domain "resumebuilder": one Stage MBean per
+// histogram plus the RenderMetrics MBean with counters, gauges and dump
+// operations) and can be written as JSON or Prometheus text. With
+// -Dresumebuilder.metrics.file=<path> the file is rewritten every
+// -Dresumebuilder.metrics.interval seconds (default 10) and at exit; a .json
+// path selects JSON, anything else Prometheus text.
+final class RenderMetrics {
+    private static final String DOMAIN = "resumebuilder";
+
+    // Bucket upper bounds: durations in nanoseconds, sizes in bytes
+    private static final long[] DURATION_BOUNDS = {
+        100_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L};
+    private static final long[] SIZE_BOUNDS = {
+        4L << 10, 16L << 10, 64L << 10, 256L << 10, 1L << 20, 4L << 20, 16L << 20, 64L << 20};
+
+    private static final RenderMetrics SHARED = new RenderMetrics(true);
+
+    private final boolean registerBeans;
+    private final ConcurrentSkipListMap<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    RenderMetrics(boolean registerBeans) {
+        this.registerBeans = registerBeans;
+        if (registerBeans) {
+            register("type=RenderMetrics", new RegistryBean());
+        }
+    }
+
+    static RenderMetrics shared() {
+        return SHARED;
+    }
+
+    // Starts writing -Dresumebuilder.metrics.file periodically and at exit, if it is set
+    static void startFileExport() {
+        String path = System.getProperty("resumebuilder.metrics.file");
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        long interval = Math.max(1, Long.getLong("resumebuilder.metrics.interval", 10));
+        File file = new File(path);
+        ScheduledExecutorService exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        exporter.scheduleWithFixedDelay(() -> SHARED.writeQuietly(file), interval, interval, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> SHARED.writeQuietly(file), "metrics-final-export"));
+    }
+
+    // Stage timer, created on first use
+    Histogram timer(String name) {
+        return histogram(name, DURATION_BOUNDS, true);
+    }
+
+    // Distribution of sizes in bytes, created on first use
+    Histogram sizes(String name) {
+        return histogram(name, SIZE_BOUNDS, false);
+    }
+
+    private Histogram histogram(String name, long[] bounds, boolean duration) {
+        Histogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        Histogram created = new Histogram(name, bounds, duration);
+        histogram = histograms.putIfAbsent(name, created);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (registerBeans) {
+            register("type=Stage,name=" + ObjectName.quote(name), new StageBean(created));
+        }
+        return created;
+    }
+
+    LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    void increment(String name) {
+        counter(name).increment();
+    }
+
+    // A value read at export time, e.g. a cache size
+    void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    void reset() {
+        histograms.values().forEach(Histogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    // One line per stage that has recorded anything
+    String getStageSummary() {
+        StringBuilder text = new StringBuilder();
+        for (Histogram histogram : histograms.values()) {
+            long count = histogram.getCount();
+            if (count == 0 || !histogram.duration) {
+                continue;
+            }
+            text.append(String.format(Locale.ROOT, "  %-22s %7d x  mean %8.2f ms  p99 %8.2f ms  max %8.2f ms%s%n",
+                histogram.name, count, histogram.getSum() / 1e6 / count, histogram.percentile(99) / 1e6,
+                histogram.getMax() / 1e6, histogram.getErrors() > 0 ? "  " + histogram.getErrors() + " failed" : ""));
+        }
+        return text.toString();
+    }
+
+    void writeTo(File file) throws IOException {
+        String text = file.getName().toLowerCase(Locale.ROOT).endsWith(".json") ? toJson() : toPrometheus();
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = Files.createTempFile(target.getParent(), "metrics", ".tmp");
+        try {
+            Files.write(temp, text.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeQuietly(File file) {
+        try {
+            writeTo(file);
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        for (Histogram histogram : histograms.values()) {
+            String name = metricName(histogram.name) + (histogram.duration ? "_seconds" : "_bytes");
+            double scale = histogram.duration ? 1e9 : 1;
+            text.append("# TYPE ").append(name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < histogram.bounds.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                text.append(name).append("_bucket{le=\"").append(number(histogram.bounds[i] / scale)).append("\"} ")
+                    .append(cumulative).append('\n');
+            }
+            cumulative += histogram.buckets[histogram.bounds.length].sum();
+            text.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+            text.append(name).append("_sum ").append(number(histogram.getSum() / scale)).append('\n');
+            text.append(name).append("_count ").append(cumulative).append('\n');
+            if (histogram.duration) {
+                String errors = metricName(histogram.name) + "_errors_total";
+                text.append("# TYPE ").append(errors).append(" counter\n");
+                text.append(errors).append(' ').append(histogram.getErrors()).append('\n');
+            }
+        }
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            String name = metricName(counter.getKey()) + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            String name = metricName(gauge.getKey());
+            text.append("# TYPE ").append(name).append(" gauge\n");
+            text.append(name).append(' ').append(gauge.getValue().getAsLong()).append('\n');
+        }
+        return text.toString();
+    }
+
+    String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n  \"stages\": {");
+        String separator = "\n";
+        for (Histogram histogram : histograms.values()) {
+            double scale = histogram.duration ? 1e6 : 1;
+            String unit = histogram.duration ? "Ms" : "Bytes";
+            long count = histogram.getCount();
+            json.append(separator).append("    \"").append(histogram.name).append("\": {")
+                .append("\"count\": ").append(count)
+                .append(", \"errors\": ").append(histogram.getErrors())
+                .append(", \"total").append(unit).append("\": ").append(number(histogram.getSum() / scale))
+                .append(", \"mean").append(unit).append("\": ").append(number(count == 0 ? 0 : histogram.getSum() / scale / count))
+                .append(", \"p50").append(unit).append("\": ").append(number(histogram.percentile(50) / scale))
+                .append(", \"p90").append(unit).append("\": ").append(number(histogram.percentile(90) / scale))
+                .append(", \"p99").append(unit).append("\": ").append(number(histogram.percentile(99) / scale))
+                .append(", \"max").append(unit).append("\": ").append(number(histogram.getMax() / scale))
+                .append(", \"buckets\": [");
+            for (int i = 0; i <= histogram.bounds.length; i++) {
+                json.append(i == 0 ? "" : ", ").append(histogram.buckets[i].sum());
+            }
+            json.append("]}");
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"counters\": {");
+        separator = "\n";
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            json.append(separator).append("    \"").append(counter.getKey()).append("\": ").append(counter.getValue().sum());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"gauges\": {");
+        separator = "\n";
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            json.append(separator).append("    \"").append(gauge.getKey()).append("\": ").append(gauge.getValue().getAsLong());
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    private static String metricName(String name) {
+        return DOMAIN + "_" + name.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    private static String number(double value) {
+        return BigDecimal.valueOf(value).round(MathContext.DECIMAL64).stripTrailingZeros().toPlainString();
+    }
+
+    private void register(String properties, DynamicMBean bean) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(DOMAIN + ":" + properties));
+        } catch (JMException | SecurityException e) {
+            System.err.println("Could not register metrics MBean " + properties + ": " + e.getMessage());
+        }
+    }
+
+    // Counts of values per bucket; the last bucket takes everything above the highest bound
+    static final class Histogram {
+        final String name;
+        private final long[] bounds;
+        private final boolean duration;
+        private final LongAdder[] buckets;
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private final LongAdder errors = new LongAdder();
+
+        private Histogram(String name, long[] bounds, boolean duration) {
+            this.name = name;
+            this.bounds = bounds;
+            this.duration = duration;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            int index = Arrays.binarySearch(bounds, value);
+            buckets[index >= 0 ? index : -index - 1].increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        // Records the time since a System.nanoTime() start
+        void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        // Counts a failure of this stage; reporting it is up to the caller
+        void fail() {
+            errors.increment();
+        }
+
+        long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        long getSum() { return sum.sum(); }
+        long getMax() { return max.get(); }
+        long getErrors() { return errors.sum(); }
+
+        // Upper bound of the bucket holding the given percentile, capped by the largest value seen
+        long percentile(int percentile) {
+            long count = getCount();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * count);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return Math.min(bounds[i], getMax());
+                }
+            }
+            return getMax();
+        }
+
+        private void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            sum.reset();
+            max.reset();
+            errors.reset();
+        }
+    }
+
+    // Read-only MBean over a snapshot of named values
+    private abstract static class ValuesBean implements DynamicMBean {
+        abstract Map<String, Object> values();
+
+        MBeanOperationInfo[] operations() {
+            return new MBeanOperationInfo[0];
+        }
+
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object value = values().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Object> values = values();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                if (values.containsKey(attribute)) {
+                    list.add(new Attribute(attribute, values.get(attribute)));
+                }
+            }
+            return list;
+        }
+
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        public Object invoke(String action, Object[] params, String[] signature) throws MBeanException, ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(action));
+        }
+
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Object> values = values();
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> value : values.entrySet()) {
+                attributes[i++] = new MBeanAttributeInfo(value.getKey(), value.getValue().getClass().getName(),
+                    value.getKey(), true, false, false);
+            }
+            return new MBeanInfo(getClass().getName(), "Resume Builder metrics", attributes, null, operations(), null);
+        }
+    }
+
+    private static final class StageBean extends ValuesBean {
+        private final Histogram histogram;
+
+        StageBean(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        Map<String, Object> values() {
+            double scale = histogram.duration ? 1e6 : 1;
+            String unit = histogram.duration ? "Millis" : "Bytes";
+            long count = histogram.getCount();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("Count", count);
+            values.put("Errors", histogram.getErrors());
+            values.put("Total" + unit, histogram.getSum() / scale);
+            values.put("Mean" + unit, count == 0 ? 0.0 : histogram.getSum() / scale / count);
+            values.put("P50" + unit, histogram.percentile(50) / scale);
+            values.put("P90" + unit, histogram.percentile(90) / scale);
+            values.put("P99" + unit, histogram.percentile(99) / scale);
+            values.put("Max" + unit, histogram.getMax() / scale);
+            return values;
+        }
+    }
+
+    // Counters and gauges as attributes, plus dumpJson/dumpPrometheus(path) and reset()
+    private final class RegistryBean extends ValuesBean {
+        Map<String, Object> values() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            counters.forEach((name, counter) -> values.put(name, counter.sum()));
+            gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+            return values;
+        }
+
+        @Override
+        MBeanOperationInfo[] operations() {
+            MBeanParameterInfo[] path = {new MBeanParameterInfo("path", String.class.getName(), "Output file")};
+            return new MBeanOperationInfo[] {
+                new MBeanOperationInfo("dumpJson", "Write all metrics as JSON", path, "void", MBeanOperationInfo.ACTION),
+                new MBeanOperationInfo("dumpPrometheus", "Write all metrics as Prometheus text", path, "void", MBeanOperationInfo.ACTION),
+                new MBeanOperationInfo("reset", "Zero all counters and stages", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION)
+            };
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) throws MBeanException, ReflectionException {
+            try {
+                switch (action) {
+                    case "dumpJson":
+                        Files.write(Paths.get((String) params[0]), toJson().getBytes(StandardCharsets.UTF_8));
+                        return null;
+                    case "dumpPrometheus":
+                        Files.write(Paths.get((String) params[0]), toPrometheus().getBytes(StandardCharsets.UTF_8));
+                        return null;
+                    case "reset":
+                        reset();
+                        return null;
+                    default:
+                        return super.invoke(action, params, signature);
+                }
+            } catch (IOException e) {
+                throw new MBeanException(e, "Could not write metrics: " + e.getMessage());
+            }
+        }
+    }
+}
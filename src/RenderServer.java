@@ -0,0 +1,409 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Local HTTP rendering service built on the JDK's com.sun.net.httpserver.
+//
+//   java ResumeBuilder --serve [--host H] [--port N] [--threads N] [--queue N]
+//
+//   POST /render   body: a JSON object of field values, or .rbd bytes (v1 or v2)
+//                  -> 200 application/pdf
+//   GET  /metrics  every RenderMetrics counter, gauge and stage in Prometheus
+//                  text format, including the server.* request counts, latency
+//                  histograms and render queue depth
+//   GET  /health   -> 200 "ok"
+//
+// JSON bodies map field names to strings; arrays of strings are joined with
+// newlines, and "template" is honoured like in .rbd files. A "profileImage"
+// must be a "sha256:<hex>" reference to a photo already in the server's
+// ImageStore; file paths are refused with 400, so clients cannot read the
+// server's disk or learn which paths exist on it.
+//
+// Connections are handled on virtual threads when the JVM has them (Java 21+)
+// and on a cached thread pool otherwise. Handlers only parse and wait: the
+// layout itself runs on a fixed render pool with a bounded queue, so a burst
+// of requests queues up behind the available cores instead of running them
+// all at once, and anything beyond the queue is refused with 503.
+class RenderServer {
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+    private static final RenderMetrics.Histogram REQUEST_TIME = RenderMetrics.shared().timer("server.request");
+    private static final RenderMetrics.Histogram QUEUE_TIME = RenderMetrics.shared().timer("server.queue_wait");
+    private static final LongAdder REQUESTS = RenderMetrics.shared().counter("server.requests");
+    private static final LongAdder RENDERED = RenderMetrics.shared().counter("server.rendered");
+    private static final LongAdder BAD_REQUESTS = RenderMetrics.shared().counter("server.bad_requests");
+    private static final LongAdder REJECTED = RenderMetrics.shared().counter("server.rejected");
+
+    private final ResumePdfRenderer renderer = new ResumePdfRenderer(true, PdfCache.shared());
+    private final ThreadPoolExecutor renderPool;
+    private final ExecutorService handlerExecutor;
+    private final HttpServer server;
+
+    RenderServer(InetSocketAddress address, int threads, int queueLimit) throws IOException {
+        this.renderPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueLimit), runnable -> {
+                Thread thread = new Thread(runnable, "server-render");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        RenderMetrics metrics = RenderMetrics.shared();
+        metrics.gauge("server.queue_depth", () -> renderPool.getQueue().size());
+        metrics.gauge("server.queue_capacity", () -> renderPool.getQueue().size() + renderPool.getQueue().remainingCapacity());
+        metrics.gauge("server.active_renders", renderPool::getActiveCount);
+        this.handlerExecutor = handlerExecutor();
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(handlerExecutor);
+        server.createContext("/render", this::handleRender);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/health", exchange -> send(exchange, 200, "text/plain", "ok\n"));
+    }
+
+    static int run(String[] args) {
+        String host = "127.0.0.1";
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueLimit = -1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--host") && i + 1 < args.length) {
+                host = args[++i];
+            } else if ((args[i].equals("--port") || args[i].equals("--threads") || args[i].equals("--queue"))
+                    && i + 1 < args.length) {
+                int value;
+                try {
+                    value = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    value = -1;
+                }
+                if (value < (args[i].equals("--port") ? 0 : 1)) {
+                    return usage("Invalid value for " + args[i] + ": " + args[i + 1]);
+                }
+                if (args[i].equals("--port")) {
+                    port = value;
+                } else if (args[i].equals("--threads")) {
+                    threads = value;
+                } else {
+                    queueLimit = value;
+                }
+                i++;
+            } else {
+                return usage("Unknown option: " + args[i]);
+            }
+        }
+        if (queueLimit < 0) {
+            queueLimit = threads * 16;
+        }
+
+        try {
+            RenderServer renderServer = new RenderServer(new InetSocketAddress(host, port), threads, queueLimit);
+            renderServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(renderServer::stop, "server-shutdown"));
+            System.out.printf("Listening on http://%s:%d/ (%d render threads, queue limit %d, %s)%n",
+                host, renderServer.getPort(), threads, queueLimit,
+                renderServer.handlerExecutor instanceof ThreadPoolExecutor ? "platform threads" : "virtual threads");
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Cannot start server: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java ResumeBuilder --serve [--host H] [--port N] [--threads N] [--queue N]");
+        return 2;
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(1);
+        handlerExecutor.shutdown();
+        renderPool.shutdown();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when running on Java 21+, looked up
+    // reflectively so the sources still compile for older JDKs
+    private static ExecutorService handlerExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "server-handler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleRender(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        REQUESTS.increment();
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                send(exchange, 405, "text/plain", "POST a resume to /render\n");
+                return;
+            }
+
+            Resume resume;
+            try {
+                resume = parseRequest(exchange);
+                ResumePdfRenderer.requireRenderable(resume);
+            } catch (IOException | IllegalArgumentException e) {
+                BAD_REQUESTS.increment();
+                send(exchange, 400, "text/plain", "Bad request: " + e.getMessage() + "\n");
+                return;
+            }
+
+            Future<PdfBuffer> job;
+            long queued = System.nanoTime();
+            try {
+                job = renderPool.submit(() -> {
+                    QUEUE_TIME.recordSince(queued);
+                    return renderer.renderToBuffer(resume);
+                });
+            } catch (RejectedExecutionException e) {
+                REJECTED.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, "text/plain", "Render queue full\n");
+                return;
+            }
+
+            try (PdfBuffer pdf = job.get()) {
+                exchange.getResponseHeaders().set("Content-Type", "application/pdf");
+                exchange.sendResponseHeaders(200, pdf.size());
+                try (OutputStream body = exchange.getResponseBody()) {
+                    pdf.writeTo(body);
+                }
+                RENDERED.increment();
+                REQUEST_TIME.recordSince(start);
+            } catch (ExecutionException e) {
+                REQUEST_TIME.fail();
+                System.err.println("Render failed: " + e.getCause());
+                send(exchange, 500, "text/plain", "Render failed: " + e.getCause() + "\n");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.cancel(true);
+                send(exchange, 503, "text/plain", "Interrupted\n");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Resume parseRequest(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            throw new IOException("body larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        // .rbd data never starts with '{', so clients that omit the JSON content type still work
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        boolean json = contentType != null && contentType.toLowerCase().startsWith("application/json");
+        for (int i = 0; !json && i < body.length && body[i] != (byte) 0x89; i++) {
+            if (body[i] == '{') {
+                json = true;
+            } else if (!Character.isWhitespace(body[i])) {
+                break;
+            }
+        }
+        Resume resume = json
+            ? Resume.fromEntries(JsonObjectParser.parse(new String(body, StandardCharsets.UTF_8)))
+            : Resume.from(ResumeDataFile.read(new ByteArrayInputStream(body)));
+        String image = resume.getProfileImagePath();
+        if (image == null || image.isEmpty()) {
+            return resume.withProfileImage(null);
+        }
+        if (!ImageStore.shared().contains(image)) {
+            throw new IllegalArgumentException("profileImage must reference a stored image (sha256:<hex>)");
+        }
+        return resume;
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", RenderMetrics.shared().toPrometheus());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    // Minimal parser for a flat JSON object of strings (arrays of strings are joined
+    // with newlines; numbers and booleans are kept as their text; null is skipped)
+    static final class JsonObjectParser {
+        private final String text;
+        private int pos = 0;
+
+        private JsonObjectParser(String text) {
+            this.text = text;
+        }
+
+        static Map<String, String> parse(String text) throws IOException {
+            JsonObjectParser parser = new JsonObjectParser(text);
+            Map<String, String> values = parser.readObject();
+            parser.skipWhitespace();
+            if (parser.pos != text.length()) {
+                throw parser.error("trailing characters");
+            }
+            return values;
+        }
+
+        private Map<String, String> readObject() throws IOException {
+            Map<String, String> values = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                String value = readValue();
+                if (value != null) {
+                    values.put(key, value);
+                }
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return values;
+                }
+                if (c != ',') {
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+
+        private String readValue() throws IOException {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '[') {
+                pos++;
+                StringJoiner lines = new StringJoiner("\n");
+                skipWhitespace();
+                if (peek() == ']') {
+                    pos++;
+                    return "";
+                }
+                while (true) {
+                    skipWhitespace();
+                    String item = readValue();
+                    if (item != null) {
+                        lines.add(item);
+                    }
+                    skipWhitespace();
+                    char separator = next();
+                    if (separator == ']') {
+                        return lines.toString();
+                    }
+                    if (separator != ',') {
+                        throw error("expected ',' or ']'");
+                    }
+                }
+            }
+            if (c == '{') {
+                throw error("nested objects are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && "+-.0123456789eEtrufalsn".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty()) {
+                throw error("unexpected character");
+            }
+            return literal;
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escape = next();
+                switch (escape) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    case 'r': value.append('\r'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("truncated \\u escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: value.append(escape); break;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() throws IOException {
+            if (pos >= text.length()) {
+                throw error("unexpected end of JSON");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() throws IOException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (next() != expected) {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException("Invalid JSON at offset " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.util.*;
+
+// Typed, immutable model of a resume, parsed from the raw field values.
+// Both the live preview and the PDF renderer read from it, so section text
+// is split into entries once instead of on every render. withField()
+// re-parses only the field that changed and shares everything else with
+// the previous instance, which keeps the model current incrementally as the
+// user types. Instances are safe to hand to any thread.
+final class Resume {
+    static final List<String> FIELD_NAMES = Collections.unmodifiableList(Arrays.asList(
+        "fullName", "email", "phone", "address", "location", "linkedin", "github", "portfolio",
+        "summary", "experience", "education", "skills", "projects", "certifications"));
+
+    private static final String DEFAULT_TITLE = "Professional";
+
+    private final Map<String, String> values;
+    private final String title;
+    private final List<ExperienceEntry> experience;
+    private final List<EducationEntry> education;
+    private final List<Skill> skills;
+    private final List<Certification> certifications;
+    private final String profileImagePath;
+    private final String template;
+
+    private Resume(Map<String, String> values, String title, List<ExperienceEntry> experience,
+                   List<EducationEntry> education, List<Skill> skills, List<Certification> certifications,
+                   String profileImagePath, String template) {
+        this.values = values;
+        this.title = title;
+        this.experience = experience;
+        this.education = education;
+        this.skills = skills;
+        this.certifications = certifications;
+        this.profileImagePath = profileImagePath;
+        this.template = template;
+    }
+
+    static Resume empty() {
+        return new Resume(Collections.emptyMap(), null, Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList(), Collections.emptyList(), null, ResumeDataFile.DEFAULT_TEMPLATE);
+    }
+
+    static Resume from(ResumeSnapshot snapshot) {
+        Resume resume = empty().withProfileImage(snapshot.getProfileImagePath()).withTemplate(snapshot.getTemplate());
+        for (Map.Entry<String, String> entry : snapshot.getValues().entrySet()) {
+            resume = resume.withField(entry.getKey(), entry.getValue());
+        }
+        return resume;
+    }
+
+    // From raw entries as found in .rbd files, including the template and profileImage keys
+    static Resume fromEntries(Map<String, String> entries) {
+        ResumeDataFile.Builder builder = new ResumeDataFile.Builder();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return from(builder.build());
+    }
+
+    // A copy with one field replaced; only that field is re-parsed
+    Resume withField(String fieldName, String rawValue) {
+        String value = rawValue == null ? "" : rawValue.trim();
+        if (value.equals(get(fieldName))) {
+            return this;
+        }
+        Map<String, String> newValues = new HashMap<>(values);
+        newValues.put(fieldName, value);
+        newValues = Collections.unmodifiableMap(newValues);
+
+        String newTitle = title;
+        List<ExperienceEntry> newExperience = experience;
+        List<EducationEntry> newEducation = education;
+        List<Skill> newSkills = skills;
+        List<Certification> newCertifications = certifications;
+        boolean parsed = true;
+        long start = System.nanoTime();
+        switch (fieldName) {
+            case "summary":
+                newTitle = titleFromSummary(value);
+                break;
+            case "experience":
+                newExperience = ExperienceEntry.parseAll(value);
+                break;
+            case "education":
+                newEducation = EducationEntry.parseAll(value);
+                break;
+            case "skills":
+                newSkills = Skill.parseAll(value);
+                break;
+            case "certifications":
+                newCertifications = Certification.parseAll(value);
+                break;
+            default:
+                parsed = false;
+                break;
+        }
+        if (parsed) {
+            // Only structured fields are parsed; the rest are stored as typed
+            RenderMetrics.shared().timer("parse." + fieldName).recordSince(start);
+        }
+        return new Resume(newValues, newTitle, newExperience, newEducation, newSkills, newCertifications,
+            profileImagePath, template);
+    }
+
+    Resume withProfileImage(String path) {
+        if (Objects.equals(path, profileImagePath)) {
+            return this;
+        }
+        return new Resume(values, title, experience, education, skills, certifications, path, template);
+    }
+
+    Resume withTemplate(String templateName) {
+        String name = templateName == null ? ResumeDataFile.DEFAULT_TEMPLATE : templateName;
+        if (name.equals(template)) {
+            return this;
+        }
+        return new Resume(values, title, experience, education, skills, certifications, profileImagePath, name);
+    }
+
+    // Job title shown under the name: the first summary line when it is short enough
+    private static String titleFromSummary(String summary) {
+        if (summary.isEmpty()) {
+            return null;
+        }
+        String[] lines = summary.split("\n");
+        if (lines.length > 0 && lines[0].length() < 50) {
+            return lines[0];
+        }
+        return DEFAULT_TITLE;
+    }
+
+    // Trimmed field value, or "" when the field is missing
+    String get(String fieldName) {
+        String value = values.get(fieldName);
+        return value == null ? "" : value;
+    }
+
+    String getFullName() { return get("fullName"); }
+
+    // Null when there is no summary
+    String getTitle() { return title; }
+
+    List<ExperienceEntry> getExperience() { return experience; }
+
+    List<EducationEntry> getEducation() { return education; }
+
+    List<Skill> getSkills() { return skills; }
+
+    List<Certification> getCertifications() { return certifications; }
+
+    String getProfileImagePath() { return profileImagePath; }
+
+    String getTemplate() { return template; }
+}
@@ -0,0 +1,722 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// Single-file container for many resumes and their profile photos (.rba).
+//
+//   java ResumeBuilder --archive <file.rba> [--add file.rbd|directory]... [--remove id]...
+//                      [--extract directory] [--compact] [--list]
+//
+// The file is a header followed by blocks that are only ever appended:
+//   header  magic 0x89 'R' 'B' 'A', version 1, three zero bytes
+//   block   type (byte), key (unsigned short length + UTF-8),
+//           payload (int length + bytes), CRC32 of type, key and payload
+// Block types: resume (key: id, payload: .rbd version 2 bytes), image (key:
+// SHA-256 of the bytes, payload: the ImageStore blob), delete (key: id),
+// index (every live resume and image with its block offset and length) and
+// trailer (offset of the index; always the last 19 bytes of a closed archive).
+//
+// Opening reads the trailer and then the index, so any resume is one
+// positional read away. Saving appends a new block for the resume and, when a
+// new photo is used, one image block; the old version stays behind as dead
+// space. A photo is stored once however many resumes use it: resumes refer to
+// it as "sha256:<hex>", exactly as in .rbd files, and reading a resume copies
+// its photo into the local ImageStore if it is not there yet. Closing appends a
+// fresh index and trailer. After a crash the trailer is missing and the blocks
+// are scanned instead, up to the first torn one.
+//
+// Once more than half of a large archive is dead, closing it compacts it: the
+// live blocks are copied to a new file, which then replaces the old one. Only
+// one process may open an archive at a time.
+final class ResumeArchive implements Closeable {
+    static final String EXTENSION = ".rba";
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'R', 'B', 'A'};
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+
+    private static final byte RESUME = 1;
+    private static final byte IMAGE = 2;
+    private static final byte DELETE = 3;
+    private static final byte INDEX = 4;
+    private static final byte TRAILER = 5;
+    private static final int TRAILER_BYTES = 1 + 2 + 4 + 8 + 4;
+    private static final int MAX_KEY_BYTES = 255;
+    private static final int MAX_PAYLOAD_BYTES = 256 * 1024 * 1024;
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    // Where a block lives; length covers the whole block
+    private static final class Location {
+        final long offset;
+        final int length;
+
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class Block {
+        final byte type;
+        final String key;
+        final byte[] payload;
+        final int length;
+
+        Block(byte type, String key, byte[] payload, int length) {
+            this.type = type;
+            this.key = key;
+            this.payload = payload;
+            this.length = length;
+        }
+    }
+
+    private final File file;
+    private FileChannel channel;
+    private FileLock lock;
+    private final TreeMap<String, Location> resumes = new TreeMap<>();
+    private final Map<String, Location> images = new HashMap<>();
+    private long end;
+    // Blocks have been appended since the last index
+    private boolean dirty = false;
+
+    private ResumeArchive(File file) {
+        this.file = file;
+    }
+
+    static boolean isArchive(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+
+    // Opens the archive, creating it if the file does not exist
+    static ResumeArchive open(File file) throws IOException {
+        ResumeArchive archive = new ResumeArchive(file);
+        try {
+            archive.load();
+        } catch (IOException | RuntimeException e) {
+            archive.release();
+            throw e;
+        }
+        return archive;
+    }
+
+    private void load() throws IOException {
+        openChannel();
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.put(MAGIC).put((byte) VERSION).rewind();
+            writeFully(header, 0);
+            end = HEADER_BYTES;
+            dirty = true;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, 0);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a resume archive: " + file);
+        }
+        if (header.get() != VERSION) {
+            throw new IOException("Unsupported resume archive version: " + file);
+        }
+        if (!loadIndex(size)) {
+            recover(size);
+        }
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            channel = null;
+            throw new IOException("Archive is in use: " + file);
+        }
+    }
+
+    // Reads the index named by the trailer; false if the archive was not closed cleanly
+    private boolean loadIndex(long size) throws IOException {
+        if (size < HEADER_BYTES + TRAILER_BYTES) {
+            return false;
+        }
+        Block trailer = readBlock(size - TRAILER_BYTES, size);
+        if (trailer == null || trailer.type != TRAILER || trailer.payload.length != 8) {
+            return false;
+        }
+        long indexOffset = ByteBuffer.wrap(trailer.payload).getLong();
+        if (indexOffset < HEADER_BYTES || indexOffset >= size) {
+            return false;
+        }
+        Block index = readBlock(indexOffset, size);
+        if (index == null || index.type != INDEX || indexOffset + index.length != size - TRAILER_BYTES) {
+            return false;
+        }
+        applyIndex(index.payload);
+        end = size;
+        return true;
+    }
+
+    // Replays every block in order, dropping a torn tail
+    private void recover(long size) throws IOException {
+        long position = HEADER_BYTES;
+        while (position < size) {
+            Block block = readBlock(position, size);
+            if (block == null) {
+                break;
+            }
+            Location location = new Location(position, block.length);
+            switch (block.type) {
+                case RESUME:
+                    if (acceptId(block.key)) {
+                        resumes.put(block.key, location);
+                    }
+                    break;
+                case IMAGE:
+                    images.put(block.key, location);
+                    break;
+                case DELETE:
+                    resumes.remove(block.key);
+                    break;
+                case INDEX:
+                    applyIndex(block.payload);
+                    break;
+                default:
+                    break;
+            }
+            position += block.length;
+        }
+        if (position < size) {
+            System.err.println("Archive " + file.getName() + " was not closed cleanly; dropping "
+                + (size - position) + " unreadable byte(s)");
+            channel.truncate(position);
+        }
+        end = position;
+        dirty = true;
+    }
+
+    private void applyIndex(byte[] payload) throws IOException {
+        resumes.clear();
+        images.clear();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            String key = in.readUTF();
+            Location location = new Location(in.readLong(), in.readInt());
+            if (type == IMAGE) {
+                images.put(key, location);
+            } else if (acceptId(key)) {
+                resumes.put(key, location);
+            }
+        }
+    }
+
+    // Ids read from the file were not checked by put, so an archive written elsewhere
+    // could name a resume "../x"; such entries are left out rather than extracted
+    private boolean acceptId(String id) {
+        if (isValidId(id)) {
+            return true;
+        }
+        System.err.println("Archive " + file.getName() + ": ignoring resume with invalid id " + id);
+        return false;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // Resume ids in alphabetical order
+    synchronized List<String> ids() {
+        return new ArrayList<>(resumes.keySet());
+    }
+
+    synchronized boolean contains(String id) {
+        return resumes.containsKey(id);
+    }
+
+    synchronized int getImageCount() {
+        return images.size();
+    }
+
+    // Bytes of the blocks still in use, against the whole file
+    synchronized long getLiveBytes() {
+        long live = HEADER_BYTES;
+        for (Location location : resumes.values()) {
+            live += location.length;
+        }
+        for (Location location : images.values()) {
+            live += location.length;
+        }
+        return live;
+    }
+
+    synchronized long getFileBytes() {
+        return end;
+    }
+
+    // The resume stored under id, with its photo copied into the ImageStore; null if there is none
+    synchronized ResumeSnapshot get(String id) throws IOException {
+        ensureOpen();
+        Location location = resumes.get(id);
+        if (location == null) {
+            return null;
+        }
+        Block block = readBlock(location.offset, end);
+        if (block == null || block.type != RESUME) {
+            throw new IOException("Corrupt resume block for " + id + " in " + file);
+        }
+        ResumeSnapshot stored = ResumeDataFile.read(new ByteArrayInputStream(block.payload));
+        extractImage(stored.getProfileImagePath());
+        return stored;
+    }
+
+    // Stores a resume under id, replacing any previous one; its photo is copied in unless already present
+    void put(String id, ResumeSnapshot resume) throws IOException {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Invalid archive id: " + id);
+        }
+        String image = resume.getProfileImagePath();
+        if (image != null && !image.isEmpty() && !ImageStore.isReference(image)) {
+            // Photo chosen before the image store existed; decoded outside the lock so that
+            // parallel imports do not queue behind it, and only once per original
+            try {
+                image = ImageStore.shared().importImage(new File(image));
+            } catch (IOException e) {
+                // Unreadable: the path is kept as it is, like in .rbd files
+            }
+        }
+        synchronized (this) {
+            ensureOpen();
+            String stored = storeImage(image);
+            byte[] data;
+            try {
+                data = ResumeDataFile.toBytes(new ResumeSnapshot(resume.getValues(), stored, resume.getTemplate()));
+            } catch (UncheckedIOException e) {
+                // A field over the .rbd size limit
+                throw e.getCause();
+            }
+            resumes.put(id, append(RESUME, id, data));
+        }
+    }
+
+    synchronized void remove(String id) throws IOException {
+        ensureOpen();
+        if (resumes.remove(id) != null) {
+            append(DELETE, id, new byte[0]);
+        }
+    }
+
+    // Ids are used as file names when extracting, so path separators are not allowed
+    static boolean isValidId(String id) {
+        return id != null && !id.isEmpty() && !id.equals(".") && !id.equals("..")
+            && id.indexOf('/') < 0 && id.indexOf('\\') < 0
+            && id.getBytes(StandardCharsets.UTF_8).length <= MAX_KEY_BYTES;
+    }
+
+    // Reference to the photo, copied into the archive unless already there; the
+    // path is kept unchanged when the photo cannot be read
+    private String storeImage(String path) throws IOException {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        String hash = ImageStore.hashOf(path);
+        if (hash == null || images.containsKey(hash)) {
+            return path;
+        }
+        byte[] data;
+        try {
+            data = ImageStore.shared().read(path);
+        } catch (IOException e) {
+            return path;
+        }
+        images.put(hash, append(IMAGE, hash, data));
+        return path;
+    }
+
+    private void extractImage(String reference) throws IOException {
+        String hash = ImageStore.hashOf(reference);
+        Location location = hash == null ? null : images.get(hash);
+        if (location == null || ImageStore.shared().contains(reference)) {
+            return;
+        }
+        Block block = readBlock(location.offset, end);
+        if (block == null || block.type != IMAGE) {
+            throw new IOException("Corrupt image block in " + file);
+        }
+        ImageStore.shared().put(block.payload);
+    }
+
+    private Location append(byte type, String key, byte[] payload) throws IOException {
+        byte[] block = encode(type, key, payload);
+        Location location = new Location(end, block.length);
+        writeFully(ByteBuffer.wrap(block), end);
+        end += block.length;
+        dirty = true;
+        return location;
+    }
+
+    private static byte[] encode(byte type, String key, byte[] payload) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES) {
+            throw new IOException("Archive key too long: " + key);
+        }
+        ByteBuffer block = ByteBuffer.allocate(1 + 2 + keyBytes.length + 4 + payload.length + 4);
+        block.put(type).putShort((short) keyBytes.length).put(keyBytes).putInt(payload.length).put(payload);
+        block.putInt(checksum(block.array(), block.position()));
+        return block.array();
+    }
+
+    // The block at offset, or null when it is cut off or fails its checksum
+    private Block readBlock(long offset, long limit) throws IOException {
+        if (limit - offset < 1 + 2 + 4 + 4) {
+            return null;
+        }
+        ByteBuffer head = ByteBuffer.allocate(3);
+        readFully(head, offset);
+        byte type = head.get(0);
+        int keyLength = head.getShort(1) & 0xFFFF;
+        if (keyLength > MAX_KEY_BYTES || limit - offset < 3 + keyLength + 4) {
+            return null;
+        }
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        readFully(lengthBuffer, offset + 3 + keyLength);
+        int payloadLength = lengthBuffer.getInt(0);
+        long length = 3L + keyLength + 4 + payloadLength + 4;
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_BYTES || limit - offset < length) {
+            return null;
+        }
+        ByteBuffer block = ByteBuffer.allocate((int) length);
+        readFully(block, offset);
+        byte[] bytes = block.array();
+        if (block.getInt((int) length - 4) != checksum(bytes, (int) length - 4)) {
+            return null;
+        }
+        String key = new String(bytes, 3, keyLength, StandardCharsets.UTF_8);
+        byte[] payload = Arrays.copyOfRange(bytes, 3 + keyLength + 4, 3 + keyLength + 4 + payloadLength);
+        return new Block(type, key, payload, (int) length);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of archive " + file);
+            }
+        }
+        buffer.flip();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    // Appends the index and trailer so that the next open needs no scan
+    synchronized void flush() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        ensureOpen();
+        writeIndex(this::append, resumes, images);
+        channel.force(false);
+        dirty = false;
+    }
+
+    private interface BlockSink {
+        Location append(byte type, String key, byte[] payload) throws IOException;
+    }
+
+    private static void writeIndex(BlockSink sink, Map<String, Location> resumes, Map<String, Location> images) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(resumes.size() + images.size());
+        writeEntries(out, RESUME, resumes);
+        writeEntries(out, IMAGE, images);
+        Location index = sink.append(INDEX, "", bytes.toByteArray());
+        sink.append(TRAILER, "", ByteBuffer.allocate(8).putLong(index.offset).array());
+    }
+
+    private static void writeEntries(DataOutputStream out, byte type, Map<String, Location> entries) throws IOException {
+        for (Map.Entry<String, Location> entry : entries.entrySet()) {
+            out.writeByte(type);
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().offset);
+            out.writeInt(entry.getValue().length);
+        }
+    }
+
+    // Rewrites the archive with only the live resumes and the photos they use
+    synchronized void compact() throws IOException {
+        ensureOpen();
+        Set<String> used = new HashSet<>();
+        for (Location location : resumes.values()) {
+            Block block = readBlock(location.offset, end);
+            if (block == null) {
+                throw new IOException("Corrupt resume block in " + file);
+            }
+            String image = ResumeDataFile.read(new ByteArrayInputStream(block.payload)).getProfileImagePath();
+            if (ImageStore.hashOf(image) != null) {
+                used.add(ImageStore.hashOf(image));
+            }
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        Path temp = Files.createTempFile(directory.toPath(), "archive", ".tmp");
+        TreeMap<String, Location> newResumes = new TreeMap<>();
+        Map<String, Location> newImages = new HashMap<>();
+        long[] position = {HEADER_BYTES};
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            BlockSink sink = (type, key, payload) -> {
+                byte[] block = encode(type, key, payload);
+                Location location = new Location(position[0], block.length);
+                ByteBuffer buffer = ByteBuffer.wrap(block);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer, position[0] + buffer.position());
+                }
+                position[0] += block.length;
+                return location;
+            };
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.put(MAGIC).put((byte) VERSION).rewind();
+            out.write(header, 0);
+            for (String hash : new TreeSet<>(used)) {
+                Location location = images.get(hash);
+                if (location != null) {
+                    newImages.put(hash, sink.append(IMAGE, hash, readBlock(location.offset, end).payload));
+                }
+            }
+            for (Map.Entry<String, Location> entry : resumes.entrySet()) {
+                newResumes.put(entry.getKey(), sink.append(RESUME, entry.getKey(), readBlock(entry.getValue().offset, end).payload));
+            }
+            writeIndex(sink, newResumes, newImages);
+            out.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        // Replaced while the old file is still open and locked, so that no other process can
+        // take the archive in between. Windows refuses to replace an open file; only there is
+        // the lock given up for the move.
+        FileChannel oldChannel = channel;
+        try {
+            try {
+                replaceWith(temp);
+            } catch (FileSystemException e) {
+                release();
+                replaceWith(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            // The old file is unchanged, so the current offsets still hold
+            if (channel == null) {
+                openChannel();
+            }
+            throw e;
+        }
+
+        // The new file is locked before the old lock goes; if another process got to it
+        // first, this archive is closed and reports so on every call
+        channel = null;
+        lock = null;
+        try {
+            openChannel();
+        } finally {
+            if (oldChannel.isOpen()) {
+                try {
+                    oldChannel.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close archive " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        resumes.clear();
+        resumes.putAll(newResumes);
+        images.clear();
+        images.putAll(newImages);
+        end = position[0];
+        dirty = false;
+    }
+
+    private void replaceWith(Path temp) throws IOException {
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("Archive is closed: " + file);
+        }
+    }
+
+    private boolean needsCompaction() {
+        long live = getLiveBytes();
+        return end > COMPACT_MIN_BYTES && end - live > live;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (needsCompaction()) {
+                compact();
+            } else {
+                flush();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not close archive " + file + ": " + e.getMessage());
+        }
+        lock = null;
+        channel = null;
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    static int run(String[] args) {
+        if (args.length == 0 || args[0].startsWith("-")) {
+            return usage("No archive given");
+        }
+        File archiveFile = new File(args[0]);
+        List<File> additions = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        File extractDir = null;
+        boolean compact = false;
+        boolean list = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--add") && i + 1 < args.length) {
+                additions.add(new File(args[++i]));
+            } else if (args[i].equals("--remove") && i + 1 < args.length) {
+                removals.add(args[++i]);
+            } else if (args[i].equals("--extract") && i + 1 < args.length) {
+                extractDir = new File(args[++i]);
+            } else if (args[i].equals("--compact")) {
+                compact = true;
+            } else if (args[i].equals("--list")) {
+                list = true;
+            } else {
+                return usage("Unknown option: " + args[i]);
+            }
+        }
+
+        try (ResumeArchive archive = open(archiveFile)) {
+            int status = 0;
+            if (!additions.isEmpty()) {
+                // Parsing runs in parallel; appends are serialized by the archive. Two
+                // inputs may map to the same id (a/cv.rbd and b/cv.rbd, or x-1.rbd next
+                // to a dump x.rbd): the first one keeps it and the others are refused,
+                // since replacing is only meant for resumes added by an earlier run
+                Map<String, String> added = new HashMap<>();
+                boolean[] collided = {false};
+                ResumeImporter importer = new ResumeImporter(System.out, Runtime.getRuntime().availableProcessors());
+                boolean ok = importer.importAll(additions, record -> {
+                    String name = record.getSource().getName();
+                    if (name.toLowerCase(Locale.ROOT).endsWith(ResumeDataFile.EXTENSION)) {
+                        name = name.substring(0, name.length() - ResumeDataFile.EXTENSION.length());
+                    }
+                    String id = record.getIndex() == 0 ? name : name + "-" + record.getIndex();
+                    String source = record.getSource().getPath() + (record.getIndex() == 0 ? "" : " #" + record.getIndex());
+                    String previous;
+                    synchronized (added) {
+                        previous = added.putIfAbsent(id, source);
+                        if (previous != null) {
+                            collided[0] = true;
+                        }
+                    }
+                    if (previous != null) {
+                        System.err.println("Not adding " + source + ": id " + id + " is already used by " + previous);
+                        return;
+                    }
+                    try {
+                        archive.put(id, record.getResume());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                status = ok && !collided[0] ? 0 : 1;
+            }
+            for (String id : removals) {
+                if (!archive.contains(id)) {
+                    System.err.println("No resume with id " + id);
+                    status = 1;
+                }
+                archive.remove(id);
+            }
+            if (compact) {
+                archive.compact();
+            }
+            if (list) {
+                for (String id : archive.ids()) {
+                    System.out.println(id);
+                }
+            }
+            if (extractDir != null) {
+                if (!extractDir.isDirectory() && !extractDir.mkdirs()) {
+                    return usage("Cannot create output directory: " + extractDir);
+                }
+                File root = extractDir.getCanonicalFile();
+                for (String id : archive.ids()) {
+                    File target = new File(root, id + ResumeDataFile.EXTENSION);
+                    if (!root.equals(target.getCanonicalFile().getParentFile()) || Files.isSymbolicLink(target.toPath())) {
+                        System.err.println("Not extracting " + id + ": it would be written outside " + extractDir);
+                        status = 1;
+                        continue;
+                    }
+                    ResumeDataFile.write(target, archive.get(id));
+                }
+            }
+            archive.flush();
+            System.out.printf("%s: %d resume(s), %d image(s), %.1f KB (%.0f%% live)%n", archiveFile.getName(),
+                archive.ids().size(), archive.getImageCount(), archive.getFileBytes() / 1024.0,
+                100.0 * archive.getLiveBytes() / Math.max(1, archive.getFileBytes()));
+            return status;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Archive error: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            System.err.println("Archive update interrupted");
+            return 1;
+        }
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java ResumeBuilder --archive <file.rba> [--add file.rbd|directory]... [--remove id]... [--extract directory] [--compact] [--list]");
+        return 2;
+    }
+}
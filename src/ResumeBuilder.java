@@ -1,5 +1,3 @@
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.*;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
@@ -7,15 +5,40 @@ import java.awt.event.*;
 import java.io.*;
 import java.util.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
 
 
 
 
 public class ResumeBuilder extends JFrame {
     private JTabbedPane tabbedPane;
-    private Map<String, JComponent> fields;
+    // Builders of the tabs not shown yet; null once a tab has been built
+    private final java.util.List<java.util.function.Supplier<JComponent>> tabBuilders = new ArrayList<>();
+    // Text of every input field, shared by the tab components once they exist
+    private final Map<String, PlainDocument> fieldDocuments = new LinkedHashMap<>();
     private JComboBox<String> templateSelector;
-    private JTextArea previewArea;
+    private PreviewView previewView;
+    private JLabel previewStatusLabel;
+    private PreviewScheduler previewScheduler;
+    private final PreviewSections previewSections = new PreviewSections();
+    private JButton pdfButton;
+    private JProgressBar exportProgressBar;
+    private JButton cancelExportButton;
+    private PdfExportWorker exportWorker;
+    private AutosaveService autosave;
+    
+    // Open documents; only the active one is loaded into the field documents
+    private final ResumeWorkspace workspace = new ResumeWorkspace();
+    private JList<ResumeWorkspace.Session> sessionList;
+    private JLabel workspaceStatusLabel;
+    // Set while another document is being loaded into the fields
+    private boolean loadingSession = false;
+    private JDialog searchDialog;
+    
+    // Parsed model of the fields, brought up to date lazily from the fields edited since
+    private Resume resumeModel = Resume.empty();
+    private final Set<String> staleModelFields = new HashSet<>(Resume.FIELD_NAMES);
     private String currentTemplate = "Professional";
     private String profileImagePath = null;
     
@@ -26,18 +49,79 @@ public class ResumeBuilder extends JFrame {
     private static final Color BACKGROUND_COLOR = new Color(236, 240, 241);
     private static final Color TEXT_COLOR = new Color(44, 62, 80);
     
+    // Fonts and borders are immutable, so every component shares one instance
+    private static final java.awt.Font HEADING_FONT = new java.awt.Font("Arial", java.awt.Font.BOLD, 14);
+    private static final java.awt.Font LABEL_FONT = new java.awt.Font("Arial", java.awt.Font.BOLD, 12);
+    private static final java.awt.Font INPUT_FONT = new java.awt.Font("Arial", java.awt.Font.PLAIN, 12);
+    private static final java.awt.Font MENU_FONT = new java.awt.Font("Arial", java.awt.Font.PLAIN, 11);
+    private static final java.awt.Font HINT_FONT = new java.awt.Font("Arial", java.awt.Font.ITALIC, 11);
+    private static final java.awt.Font STATUS_FONT = new java.awt.Font("Arial", java.awt.Font.PLAIN, 10);
+    private static final Border PANEL_OUTLINE = BorderFactory.createLineBorder(PRIMARY_COLOR, 2);
+    private static final Border TAB_PADDING = BorderFactory.createEmptyBorder(20, 20, 20, 20);
+    private static final Border TEXT_AREA_BORDER = BorderFactory.createCompoundBorder(
+        BorderFactory.createLineBorder(Color.GRAY), BorderFactory.createEmptyBorder(10, 10, 10, 10));
+    private static final Border TEXT_FIELD_BORDER = BorderFactory.createCompoundBorder(
+        BorderFactory.createLineBorder(Color.GRAY), BorderFactory.createEmptyBorder(5, 8, 5, 8));
+    
+    private static final Set<String> MULTI_LINE_FIELDS = new HashSet<>(Arrays.asList(
+        "summary", "experience", "education", "skills", "projects", "certifications"));
+    
+    // Preview scheduling: render after this much idle time, but never later than the max latency
+    private static final int PREVIEW_IDLE_DELAY_MS = 150;
+    private static final int PREVIEW_MAX_LATENCY_MS = 400;
+    
+    private static final RenderMetrics.Histogram PREVIEW_TIME = RenderMetrics.shared().timer("preview.update");
+    private static final RenderMetrics.Histogram MODEL_TIME = RenderMetrics.shared().timer("model.update");
+    private static final RenderMetrics.Histogram SNAPSHOT_TIME = RenderMetrics.shared().timer("fields.snapshot");
+    private static final RenderMetrics.Histogram TAB_BUILD_TIME = RenderMetrics.shared().timer("ui.tab.build");
+    
+    // Startup phases for the time-to-first-paint report
+    private static long mainStartNanos = System.nanoTime();
+    private static long mainStartMillis = System.currentTimeMillis();
+    private long constructedNanos;
+    private boolean painted = false;
+    
     public ResumeBuilder() {
         initializeUI();
         setupEventHandlers();
+        constructedNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            reportStartup(System.nanoTime());
+        }
+    }
+    
+    // Records how long the window took to appear; printed with -Dresumebuilder.startup.report=true
+    private void reportStartup(long paintedNanos) {
+        long jvmToMainMs = mainStartMillis - java.lang.management.ManagementFactory.getRuntimeMXBean().getStartTime();
+        RenderMetrics metrics = RenderMetrics.shared();
+        metrics.timer("startup.build_ui").record(constructedNanos - mainStartNanos);
+        metrics.timer("startup.first_paint").record(paintedNanos - mainStartNanos);
+        
+        if (Boolean.getBoolean("resumebuilder.startup.report")) {
+            int built = 0;
+            for (java.util.function.Supplier<JComponent> builder : tabBuilders) {
+                built += builder == null ? 1 : 0;
+            }
+            System.out.printf("Startup: JVM -> main %d ms, UI built %.1f ms, first paint %.1f ms after main (%d of %d tabs built)%n",
+                jvmToMainMs, (constructedNanos - mainStartNanos) / 1e6, (paintedNanos - mainStartNanos) / 1e6,
+                built, tabBuilders.size());
+        }
     }
     
     private void initializeUI() {
         setTitle("🚀 Créateur de CV Professionnel");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setLayout(new BorderLayout());
         getContentPane().setBackground(BACKGROUND_COLOR);
         
-        fields = new HashMap<>();
+        createFieldDocuments();
+        workspace.openActive(null, getFieldText("fullName").trim());
         
         // Create menu bar
         createMenuBar();
@@ -49,13 +133,6 @@ public class ResumeBuilder extends JFrame {
         setSize(1200, 800);
         setLocationRelativeTo(null);
         setMinimumSize(new Dimension(1000, 600));
-        
-        // Apply modern look and feel
-        try {
-            SwingUtilities.updateComponentTreeUI(this);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
     }
     
     private void createMenuBar() {
@@ -66,35 +143,36 @@ public class ResumeBuilder extends JFrame {
         // File menu
         JMenu fileMenu = new JMenu("Fichier");
         fileMenu.setForeground(Color.WHITE);
-        fileMenu.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 12));
+        fileMenu.setFont(LABEL_FONT);
         
         JMenuItem newItem = createMenuItem("Nouveau CV", "Créer un nouveau CV");
+        JMenuItem closeItem = createMenuItem("Fermer le CV", "Fermer le CV affiché");
         JMenuItem saveItem = createMenuItem("Enregistrer", "Enregistrer les données du CV");
         JMenuItem loadItem = createMenuItem("Charger", "Charger un CV sauvegardé");
+        JMenuItem searchItem = createMenuItem("Rechercher des CV…", "Rechercher dans les CV indexés");
         JMenuItem exportPdfItem = createMenuItem("Exporter en PDF", "Générer un CV en PDF");
+        JMenuItem exportMetricsItem = createMenuItem("Exporter les métriques", "Enregistrer les mesures de performance (JSON ou Prometheus)");
         JMenuItem exitItem = createMenuItem("Quitter", "Quitter l'application");
         
         // Add action listeners to menu items
-        newItem.addActionListener(e -> clearAllFields());
+        newItem.addActionListener(e -> newSession());
+        closeItem.addActionListener(e -> closeSession());
         saveItem.addActionListener(e -> saveResumeData());
         loadItem.addActionListener(e -> loadResumeData());
+        searchItem.addActionListener(e -> showSearchDialog());
         exportPdfItem.addActionListener(e -> generatePDF());
-        exitItem.addActionListener(e -> {
-            int choice = JOptionPane.showConfirmDialog(this, 
-                "Êtes-vous sûr de vouloir quitter?", 
-                "Quitter l'application", 
-                JOptionPane.YES_NO_OPTION);
-            if (choice == JOptionPane.YES_OPTION) {
-                System.exit(0);
-            }
-        });
+        exportMetricsItem.addActionListener(e -> exportMetrics());
+        exitItem.addActionListener(e -> confirmExit());
         
         fileMenu.add(newItem);
+        fileMenu.add(closeItem);
         fileMenu.addSeparator();
         fileMenu.add(saveItem);
         fileMenu.add(loadItem);
+        fileMenu.add(searchItem);
         fileMenu.addSeparator();
         fileMenu.add(exportPdfItem);
+        fileMenu.add(exportMetricsItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
         
@@ -104,7 +182,7 @@ public class ResumeBuilder extends JFrame {
     private JMenuItem createMenuItem(String text, String tooltip) {
         JMenuItem item = new JMenuItem(text);
         item.setToolTipText(tooltip);
-        item.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 11));
+        item.setFont(MENU_FONT);
         return item;
     }
     
@@ -124,6 +202,9 @@ public class ResumeBuilder extends JFrame {
         
         add(splitPane, BorderLayout.CENTER);
         
+        // Side panel - Open documents
+        add(createWorkspacePanel(), BorderLayout.WEST);
+        
         // Bottom panel - Actions
         JPanel bottomPanel = createActionPanel();
         add(bottomPanel, BorderLayout.SOUTH);
@@ -133,47 +214,104 @@ public class ResumeBuilder extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(Color.WHITE);
         panel.setBorder(BorderFactory.createTitledBorder(
-            BorderFactory.createLineBorder(PRIMARY_COLOR, 2),
+            PANEL_OUTLINE,
             "Informations du CV",
             TitledBorder.LEFT,
             TitledBorder.TOP,
-            new java.awt.Font("Arial", java.awt.Font.BOLD, 14),
+            HEADING_FONT,
             PRIMARY_COLOR
         ));
         
         tabbedPane = new JTabbedPane();
-        tabbedPane.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 12));
+        tabbedPane.setFont(LABEL_FONT);
         tabbedPane.setBackground(Color.WHITE);
         
-        // Personal Information Tab
-        tabbedPane.addTab("👤 Personnel", createPersonalInfoPanel());
-        
-        // Professional Summary Tab
-        tabbedPane.addTab("📝 Résumé", createSummaryPanel());
-        
-        // Experience Tab
-        tabbedPane.addTab("💼 Expérience", createExperiencePanel());
-        
-        // Education Tab
-        tabbedPane.addTab("🎓 Formation", createEducationPanel());
-        
-        // Skills Tab
-        tabbedPane.addTab("⚡ Compétences", createSkillsPanel());
-        
-        // Projects Tab
-        tabbedPane.addTab("🚀 Projets", createProjectsPanel());
-        
-        // Certifications Tab
-        tabbedPane.addTab("🏆 Certifications", createCertificationsPanel());
+        // Tabs are built the first time they are selected; only the first one is needed to paint
+        addLazyTab("👤 Personnel", this::createPersonalInfoPanel);
+        addLazyTab("📝 Résumé", () -> createTextAreaPanel("Résumé Professionnel / Objectif", "summary", 8,
+            "Écrivez un résumé de 2 à 3 phrases captivantes sur votre parcours professionnel et vos objectifs"));
+        addLazyTab("💼 Expérience", () -> createTextAreaPanel("Expérience Professionnelle", "experience", 12,
+            "Format: Titre du Poste | Entreprise | Dates\n• Réalisation ou responsabilité\n• Une autre réalisation"));
+        addLazyTab("🎓 Formation", () -> createTextAreaPanel("Formation", "education", 8,
+            "Format: Degree | University | Year | GPA (optional)"));
+        addLazyTab("⚡ Compétences", () -> createTextAreaPanel("Technical Skills", "skills", 10,
+            "Organize by categories. One skill per line or comma-separated."));
+        addLazyTab("🚀 Projets", () -> createTextAreaPanel("Projects", "projects", 10,
+            "Format: Project Name | Technologies Used | Date\n• Description of what you built\n• Key features or achievements"));
+        addLazyTab("🏆 Certifications", () -> createTextAreaPanel("Certifications & Achievements", "certifications", 8,
+            "List certifications, awards, or notable achievements"));
+        
+        buildTab(0);
+        tabbedPane.addChangeListener(e -> buildTab(tabbedPane.getSelectedIndex()));
         
         panel.add(tabbedPane, BorderLayout.CENTER);
         return panel;
     }
     
+    private void addLazyTab(String title, java.util.function.Supplier<JComponent> builder) {
+        JPanel placeholder = new JPanel();
+        placeholder.setBackground(Color.WHITE);
+        tabbedPane.addTab(title, placeholder);
+        tabBuilders.add(builder);
+    }
+    
+    // Replaces a tab's placeholder with its real content the first time it is shown
+    private void buildTab(int index) {
+        if (index < 0 || tabBuilders.get(index) == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        tabbedPane.setComponentAt(index, tabBuilders.set(index, null).get());
+        TAB_BUILD_TIME.recordSince(start);
+    }
+    
+    // Every field's text lives in a document created up front, so the model, preview,
+    // autosave and load/save never depend on which tabs have been built
+    private void createFieldDocuments() {
+        for (String fieldName : Resume.FIELD_NAMES) {
+            PlainDocument document = new PlainDocument();
+            if (!MULTI_LINE_FIELDS.contains(fieldName)) {
+                // What JTextField would do once it is attached
+                document.putProperty("filterNewlines", Boolean.TRUE);
+            }
+            fieldDocuments.put(fieldName, document);
+        }
+        
+        setFieldText("experience", "Ingénieur en Logiciels | Entreprise Tech | 2022-Présent\n• Développé des applications web utilisant Java et Spring Boot\n• Collaboré avec des équipes interfonctionnelles pour livrer des projets\n• Amélioré la performance du système de 30%\n\nStagiaire | Entreprise Précédente | Été 2021\n• Aide à la réalisation d'applications mobiles\n• Participé à des révisions de code et aux tests");
+        setFieldText("education", "Bachelor of Science in Computer Science | University Name | 2022 | GPA: 3.8/4.0\nRelevant Coursework: Data Structures, Algorithms, Software Engineering, Database Systems");
+        setFieldText("skills", "Programming Languages: Java, Python, JavaScript, C++\nWeb Technologies: HTML, CSS, React, Node.js, Spring Boot\nDatabases: MySQL, PostgreSQL, MongoDB\nTools & Technologies: Git, Docker, AWS, Jenkins\nSoft Skills: Team Leadership, Problem Solving, Communication");
+        setFieldText("projects", "E-Commerce Web Application | Java, Spring Boot, React, MySQL | 2023\n• Built a full-stack e-commerce platform with user authentication\n• Implemented shopping cart, payment processing, and order management\n• Deployed on AWS with CI/CD pipeline\n\nTask Management Mobile App | React Native, Firebase | 2022\n• Developed cross-platform mobile app for task management\n• Integrated real-time synchronization and push notifications");
+        setFieldText("certifications", "AWS Certified Solutions Architect | Amazon Web Services | 2023\nOracle Certified Java Programmer | Oracle | 2022\nDean's List | University Name | Fall 2021, Spring 2022\nHackathon Winner | Tech Conference 2022 | 1st Place");
+    }
+    
+    private String getFieldText(String fieldName) {
+        PlainDocument document = fieldDocuments.get(fieldName);
+        if (document == null) {
+            return null;
+        }
+        try {
+            return document.getText(0, document.getLength());
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private void setFieldText(String fieldName, String text) {
+        PlainDocument document = fieldDocuments.get(fieldName);
+        if (document == null) {
+            return;
+        }
+        try {
+            document.replace(0, document.getLength(), text, null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     private JPanel createPersonalInfoPanel() {
         JPanel panel = new JPanel(new GridBagLayout());
         panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        panel.setBorder(TAB_PADDING);
         
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(10, 10, 10, 10);
@@ -195,7 +333,7 @@ public class ResumeBuilder extends JFrame {
         imagePanel.add(uploadImageButton);
         
         JLabel uploadHint = new JLabel("Cliquez sur le bouton pour ajouter une photo de profil (JPG, PNG, GIF)");
-        uploadHint.setFont(new java.awt.Font("Arial", java.awt.Font.ITALIC, 11));
+        uploadHint.setFont(HINT_FONT);
         uploadHint.setForeground(Color.GRAY);
         uploadHint.setAlignmentX(Component.CENTER_ALIGNMENT);
         imagePanel.add(Box.createVerticalStrut(5));
@@ -227,182 +365,22 @@ public class ResumeBuilder extends JFrame {
         return panel;
     }
     
-    private JPanel createSummaryPanel() {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
-        JLabel label = new JLabel("Résumé Professionnel / Objectif");
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
-        label.setForeground(TEXT_COLOR);
-        
-        JTextArea textArea = new JTextArea(8, 40);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        textArea.setToolTipText("Écrivez un résumé de 2 à 3 phrases captivantes sur votre parcours professionnel et vos objectifs");
-        
-        fields.put("summary", textArea);
-        
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        
-        panel.add(label, BorderLayout.NORTH);
-        panel.add(Box.createVerticalStrut(10), BorderLayout.CENTER);
-        panel.add(scrollPane, BorderLayout.SOUTH);
-        
-        return panel;
-    }
-    
-    private JPanel createExperiencePanel() {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
-        JLabel label = new JLabel("Expérience Professionnelle");
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
-        label.setForeground(TEXT_COLOR);
-        
-        JTextArea textArea = new JTextArea(12, 40);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        textArea.setToolTipText("Format: Titre du Poste | Entreprise | Dates\n• Réalisation ou responsabilité\n• Une autre réalisation");
-        textArea.setText("Ingénieur en Logiciels | Entreprise Tech | 2022-Présent\n• Développé des applications web utilisant Java et Spring Boot\n• Collaboré avec des équipes interfonctionnelles pour livrer des projets\n• Amélioré la performance du système de 30%\n\nStagiaire | Entreprise Précédente | Été 2021\n• Aide à la réalisation d'applications mobiles\n• Participé à des révisions de code et aux tests");
-        
-        fields.put("experience", textArea);
-        
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        
-        panel.add(label, BorderLayout.NORTH);
-        panel.add(Box.createVerticalStrut(10), BorderLayout.CENTER);
-        panel.add(scrollPane, BorderLayout.SOUTH);
-        
-        return panel;
-    }
-    
-    private JPanel createEducationPanel() {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
-        JLabel label = new JLabel("Formation");
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
-        label.setForeground(TEXT_COLOR);
-        
-        JTextArea textArea = new JTextArea(8, 40);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        textArea.setToolTipText("Format: Degree | University | Year | GPA (optional)");
-        textArea.setText("Bachelor of Science in Computer Science | University Name | 2022 | GPA: 3.8/4.0\nRelevant Coursework: Data Structures, Algorithms, Software Engineering, Database Systems");
-        
-        fields.put("education", textArea);
-        
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        
-        panel.add(label, BorderLayout.NORTH);
-        panel.add(Box.createVerticalStrut(10), BorderLayout.CENTER);
-        panel.add(scrollPane, BorderLayout.SOUTH);
-        
-        return panel;
-    }
-    
-    private JPanel createSkillsPanel() {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
-        JLabel label = new JLabel("Technical Skills");
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
-        label.setForeground(TEXT_COLOR);
-        
-        JTextArea textArea = new JTextArea(10, 40);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        textArea.setToolTipText("Organize by categories. One skill per line or comma-separated.");
-        textArea.setText("Programming Languages: Java, Python, JavaScript, C++\nWeb Technologies: HTML, CSS, React, Node.js, Spring Boot\nDatabases: MySQL, PostgreSQL, MongoDB\nTools & Technologies: Git, Docker, AWS, Jenkins\nSoft Skills: Team Leadership, Problem Solving, Communication");
-        
-        fields.put("skills", textArea);
-        
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        
-        panel.add(label, BorderLayout.NORTH);
-        panel.add(Box.createVerticalStrut(10), BorderLayout.CENTER);
-        panel.add(scrollPane, BorderLayout.SOUTH);
-        
-        return panel;
-    }
-    
-    private JPanel createProjectsPanel() {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
-        JLabel label = new JLabel("Projects");
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
-        label.setForeground(TEXT_COLOR);
-        
-        JTextArea textArea = new JTextArea(10, 40);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        textArea.setToolTipText("Format: Project Name | Technologies Used | Date\n• Description of what you built\n• Key features or achievements");
-        textArea.setText("E-Commerce Web Application | Java, Spring Boot, React, MySQL | 2023\n• Built a full-stack e-commerce platform with user authentication\n• Implemented shopping cart, payment processing, and order management\n• Deployed on AWS with CI/CD pipeline\n\nTask Management Mobile App | React Native, Firebase | 2022\n• Developed cross-platform mobile app for task management\n• Integrated real-time synchronization and push notifications");
-        
-        fields.put("projects", textArea);
-        
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        
-        panel.add(label, BorderLayout.NORTH);
-        panel.add(Box.createVerticalStrut(10), BorderLayout.CENTER);
-        panel.add(scrollPane, BorderLayout.SOUTH);
-        
-        return panel;
-    }
-    
-    private JPanel createCertificationsPanel() {
+    // One tab holding a labelled multi-line field, bound to the field's shared document
+    private JPanel createTextAreaPanel(String title, String fieldName, int rows, String tooltip) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        panel.setBorder(TAB_PADDING);
         
-        JLabel label = new JLabel("Certifications & Achievements");
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
+        JLabel label = new JLabel(title);
+        label.setFont(HEADING_FONT);
         label.setForeground(TEXT_COLOR);
         
-        JTextArea textArea = new JTextArea(8, 40);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
+        JTextArea textArea = new JTextArea(fieldDocuments.get(fieldName), null, rows, 40);
+        textArea.setFont(INPUT_FONT);
         textArea.setLineWrap(true);
         textArea.setWrapStyleWord(true);
-        textArea.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        textArea.setToolTipText("List certifications, awards, or notable achievements");
-        textArea.setText("AWS Certified Solutions Architect | Amazon Web Services | 2023\nOracle Certified Java Programmer | Oracle | 2022\nDean's List | University Name | Fall 2021, Spring 2022\nHackathon Winner | Tech Conference 2022 | 1st Place");
-        
-        fields.put("certifications", textArea);
+        textArea.setBorder(TEXT_AREA_BORDER);
+        textArea.setToolTipText(tooltip);
         
         JScrollPane scrollPane = new JScrollPane(textArea);
         
@@ -420,7 +398,7 @@ public class ResumeBuilder extends JFrame {
         gbc.fill = GridBagConstraints.NONE;
         
         JLabel label = new JLabel(labelText);
-        label.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 12));
+        label.setFont(LABEL_FONT);
         label.setForeground(TEXT_COLOR);
         panel.add(label, gbc);
         
@@ -428,40 +406,100 @@ public class ResumeBuilder extends JFrame {
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.weightx = 1.0;
         
-        JTextField field = new JTextField(columns);
-        field.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
-        field.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY),
-            BorderFactory.createEmptyBorder(5, 8, 5, 8)
-        ));
+        JTextField field = new JTextField(fieldDocuments.get(fieldName), null, columns);
+        field.setFont(INPUT_FONT);
+        field.setBorder(TEXT_FIELD_BORDER);
         
-        fields.put(fieldName, field);
         panel.add(field, gbc);
     }
     
+    // Selector of the open documents; choosing one swaps it into the form
+    private JPanel createWorkspacePanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.setBackground(Color.WHITE);
+        panel.setPreferredSize(new Dimension(200, 0));
+        panel.setBorder(BorderFactory.createTitledBorder(
+            PANEL_OUTLINE,
+            "Documents",
+            TitledBorder.LEFT,
+            TitledBorder.TOP,
+            HEADING_FONT,
+            PRIMARY_COLOR
+        ));
+        
+        sessionList = new JList<>(workspace);
+        sessionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        sessionList.setFont(INPUT_FONT);
+        sessionList.setSelectedValue(workspace.getActive(), false);
+        sessionList.addListSelectionListener(e -> {
+            ResumeWorkspace.Session selected = sessionList.getSelectedValue();
+            if (!e.getValueIsAdjusting() && selected != null && workspace.getActive() != null) {
+                activateSession(selected);
+            }
+        });
+        
+        JButton newButton = new JButton("＋ Nouveau");
+        newButton.setFont(MENU_FONT);
+        newButton.addActionListener(e -> newSession());
+        JButton closeButton = new JButton("✕ Fermer");
+        closeButton.setFont(MENU_FONT);
+        closeButton.addActionListener(e -> closeSession());
+        JPanel buttons = new JPanel(new GridLayout(1, 2, 5, 0));
+        buttons.setOpaque(false);
+        buttons.add(newButton);
+        buttons.add(closeButton);
+        
+        workspaceStatusLabel = new JLabel(" ");
+        workspaceStatusLabel.setFont(STATUS_FONT);
+        workspaceStatusLabel.setForeground(Color.GRAY);
+        updateWorkspaceStatus();
+        
+        JPanel south = new JPanel(new BorderLayout(0, 3));
+        south.setOpaque(false);
+        south.add(buttons, BorderLayout.NORTH);
+        south.add(workspaceStatusLabel, BorderLayout.SOUTH);
+        
+        panel.add(new JScrollPane(sessionList), BorderLayout.CENTER);
+        panel.add(south, BorderLayout.SOUTH);
+        return panel;
+    }
+    
+    private void updateWorkspaceStatus() {
+        workspaceStatusLabel.setText(String.format("%d ouvert(s), %.1f Ko en réserve",
+            workspace.getSize(), workspace.getPackedBytes() / 1024.0));
+    }
+    
     private JPanel createPreviewPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(Color.WHITE);
         panel.setBorder(BorderFactory.createTitledBorder(
-            BorderFactory.createLineBorder(PRIMARY_COLOR, 2),
+            PANEL_OUTLINE,
             "Live Preview",
             TitledBorder.LEFT,
             TitledBorder.TOP,
-            new java.awt.Font("Arial", java.awt.Font.BOLD, 14),
+            HEADING_FONT,
             PRIMARY_COLOR
         ));
         
-        // Preview area
-        previewArea = new JTextArea();
-        previewArea.setFont(new java.awt.Font("Courier New", java.awt.Font.PLAIN, 10));
-        previewArea.setEditable(false);
-        previewArea.setBackground(new Color(248, 249, 250));
-        previewArea.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        // Preview area; only the visible lines are laid out and painted
+        Color previewBackground = new Color(248, 249, 250);
+        previewView = new PreviewView(new java.awt.Font("Courier New", java.awt.Font.PLAIN, 10));
+        previewView.setBackground(previewBackground);
+        previewView.setForeground(Color.BLACK);
+        previewView.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
         
-        JScrollPane scrollPane = new JScrollPane(previewArea);
+        JScrollPane scrollPane = new JScrollPane(previewView);
+        scrollPane.getViewport().setBackground(previewBackground);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
         
+        // Render statistics reported by the preview scheduler
+        previewStatusLabel = new JLabel(" ");
+        previewStatusLabel.setFont(STATUS_FONT);
+        previewStatusLabel.setForeground(Color.GRAY);
+        previewStatusLabel.setBorder(BorderFactory.createEmptyBorder(3, 5, 3, 5));
+        
         panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(previewStatusLabel, BorderLayout.SOUTH);
         
         return panel;
     }
@@ -471,25 +509,57 @@ public class ResumeBuilder extends JFrame {
         panel.setBackground(BACKGROUND_COLOR);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
+        // PDF template, compiled into a layout plan on first use
+        JLabel templateLabel = new JLabel("Modèle :");
+        templateLabel.setFont(LABEL_FONT);
+        templateSelector = new JComboBox<>(TemplateSpec.names());
+        templateSelector.setSelectedItem(currentTemplate);
+        templateSelector.setFont(INPUT_FONT);
+        templateSelector.addActionListener(e -> {
+            String selected = (String) templateSelector.getSelectedItem();
+            if (selected != null && !selected.equals(currentTemplate)) {
+                switchTemplate(selected);
+            }
+        });
+        
         // Generate PDF button
-        JButton pdfButton = createStyledButton("📄 Generate PDF", ACCENT_COLOR);
+        pdfButton = createStyledButton("📄 Generate PDF", ACCENT_COLOR);
         pdfButton.setForeground(Color.BLACK);
         pdfButton.addActionListener(e -> generatePDF());
         
+        // Export progress, only visible while a PDF is being written
+        exportProgressBar = new JProgressBar(0, 100);
+        exportProgressBar.setStringPainted(true);
+        exportProgressBar.setPreferredSize(new Dimension(220, 22));
+        exportProgressBar.setVisible(false);
+        
+        cancelExportButton = createStyledButton("Annuler", new Color(149, 165, 166));
+        cancelExportButton.setForeground(Color.BLACK);
+        cancelExportButton.addActionListener(e -> {
+            if (exportWorker != null) {
+                exportWorker.cancel(true);
+            }
+        });
+        cancelExportButton.setVisible(false);
+        
         // Clear All button
         JButton clearButton = createStyledButton("🗑️ Clear All", new Color(149, 165, 166));
         clearButton.setForeground(Color.BLACK);
         clearButton.addActionListener(e -> clearAllFields());
         
+        panel.add(templateLabel);
+        panel.add(templateSelector);
         panel.add(pdfButton);
         panel.add(clearButton);
+        panel.add(exportProgressBar);
+        panel.add(cancelExportButton);
         
         return panel;
     }
     
     private JButton createStyledButton(String text, Color bgColor) {
         JButton button = new JButton(text);
-        button.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 12));
+        button.setFont(LABEL_FONT);
         button.setBackground(bgColor);
         button.setForeground(Color.WHITE);
         button.setBorder(BorderFactory.createEmptyBorder(12, 20, 12, 20));
@@ -513,143 +583,186 @@ public class ResumeBuilder extends JFrame {
     }
     
     private void setupEventHandlers() {
-        // Add document listeners to update preview in real-time
-        for (JComponent component : fields.values()) {
-            if (component instanceof JTextField) {
-                ((JTextField) component).getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-                    public void insertUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    public void removeUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    public void changedUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                });
-            } else if (component instanceof JTextArea) {
-                ((JTextArea) component).getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-                    public void insertUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    public void removeUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    public void changedUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                });
-            }
+        // Document events only schedule a render; bursts are coalesced by the scheduler
+        previewScheduler = new PreviewScheduler(PREVIEW_IDLE_DELAY_MS, PREVIEW_MAX_LATENCY_MS, this::updatePreview);
+        previewScheduler.setStatsListener(() -> previewStatusLabel.setText(previewScheduler.getStatsSummary()));
+        
+        // Listening on the documents covers tabs that have not been built yet
+        for (Map.Entry<String, PlainDocument> entry : fieldDocuments.entrySet()) {
+            String fieldName = entry.getKey();
+            entry.getValue().addDocumentListener(new javax.swing.event.DocumentListener() {
+                public void insertUpdate(javax.swing.event.DocumentEvent e) { fieldChanged(fieldName); }
+                public void removeUpdate(javax.swing.event.DocumentEvent e) { fieldChanged(fieldName); }
+                public void changedUpdate(javax.swing.event.DocumentEvent e) { fieldChanged(fieldName); }
+            });
         }
         
         // Initial preview update
-        SwingUtilities.invokeLater(this::updatePreview);
+        SwingUtilities.invokeLater(previewScheduler::flush);
+        
+        // The close button asks first, like Quitter
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                confirmExit();
+            }
+        });
     }
     
-    private void updatePreview() {
-        String preview = generatePreviewText();
-        previewArea.setText(preview);
-        previewArea.setCaretPosition(0);
+    // A confirmed exit is a clean one, so it removes the autosave journal
+    private void confirmExit() {
+        int choice = JOptionPane.showConfirmDialog(this, 
+            workspace.hasModified()
+                ? "Certains CV ouverts ont des modifications non enregistrées.\nÊtes-vous sûr de vouloir quitter?"
+                : "Êtes-vous sûr de vouloir quitter?", 
+            "Quitter l'application", 
+            JOptionPane.YES_NO_OPTION);
+        if (choice == JOptionPane.YES_OPTION) {
+            stopAutosave();
+            System.exit(0);
+        }
     }
     
-    private String generatePreviewText() {
-        StringBuilder preview = new StringBuilder();
-
-        // Gather fields
-        String name = getFieldValue("fullName");
-        String email = getFieldValue("email");
-        String phone = getFieldValue("phone");
-        String address = getFieldValue("address");
-        String location = getFieldValue("location");
-        String linkedin = getFieldValue("linkedin");
-        String github = getFieldValue("github");
-        String portfolio = getFieldValue("portfolio");
-        String summary = getFieldValue("summary");
-        String experience = getFieldValue("experience");
-        String education = getFieldValue("education");
-        String skills = getFieldValue("skills");
-        String projects = getFieldValue("projects");
-        String certifications = getFieldValue("certifications");
-
-        // Header box
-        String upperName = name.toUpperCase();
-        int boxWidth = Math.max(upperName.length() + 10, 56);
-        String boxTop = "╔" + "═".repeat(boxWidth - 2) + "╗\n";
-        String boxBottom = "╚" + "═".repeat(boxWidth - 2) + "╝\n";
-        String nameLine = String.format("║  %-" + (boxWidth - 4) + "s  ║\n", upperName);
-        preview.append(boxTop).append(nameLine).append(boxBottom).append("\n\n");
-
-        // Personal Info Section
-        preview.append("👤 INFORMATIONS PERSONNELLES\n");
-        preview.append("──────────────────────────────────────────────\n");
-        if (!email.isEmpty()) preview.append("✉ Email: ").append(email).append("\n");
-        if (!phone.isEmpty()) preview.append("☎ Téléphone: ").append(phone).append("\n");
-        if (!address.isEmpty()) preview.append("🏠 Adresse: ").append(address).append("\n");
-        if (!location.isEmpty()) preview.append("📍 Ville/Code Postal: ").append(location).append("\n");
-        if (!linkedin.isEmpty()) preview.append("🔗 LinkedIn: ").append(linkedin).append("\n");
-        if (!github.isEmpty()) preview.append("🐙 GitHub: ").append(github).append("\n");
-        if (!portfolio.isEmpty()) preview.append("🌐 Portfolio: ").append(portfolio).append("\n");
-        preview.append("\n");
-
-        // Summary
-        if (!summary.isEmpty()) {
-            preview.append("📝 RÉSUMÉ PROFESSIONNEL\n");
-            preview.append("──────────────────────────────────────────────\n");
-            preview.append(summary).append("\n\n");
+    // Offers to restore edits from a crashed session, then starts journaling changes
+    private void startAutosave() {
+        AutosaveService service = new AutosaveService(AutosaveService.defaultDirectory(), this::getRawValue);
+        if (!service.acquire()) {
+            return; // Another instance owns the journal
         }
-
-        // Experience
-        if (!experience.isEmpty()) {
-            preview.append("🧑‍💼 EXPÉRIENCE\n");
-            preview.append("──────────────────────────────────────────────\n");
-            preview.append(experience).append("\n\n");
+        
+        boolean recovered = false;
+        Map<ResumeWorkspace.Session, ResumeSnapshot> parked = new LinkedHashMap<>();
+        try {
+            Map<String, String> entries = service.recover();
+            java.util.List<ResumeSnapshot> background = service.recoverParked();
+            if (entries != null || !background.isEmpty()) {
+                int choice = JOptionPane.showConfirmDialog(this,
+                    "La session précédente ne s'est pas terminée correctement.\nVoulez-vous récupérer les modifications non enregistrées?",
+                    "Récupération automatique",
+                    JOptionPane.YES_NO_OPTION);
+                if (choice == JOptionPane.YES_OPTION) {
+                    if (entries != null) {
+                        entries.forEach(this::applyValue);
+                    }
+                    // Documents that were in the background reopen there, still marked unsaved
+                    for (ResumeSnapshot resume : background) {
+                        ResumeWorkspace.Session session = workspace.open(null, resume);
+                        workspace.setModified(session, true);
+                        parked.put(session, resume);
+                    }
+                    updateWorkspaceStatus();
+                    previewScheduler.flush();
+                    recovered = true;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read autosave journal: " + e.getMessage());
         }
-
-        // Education
-        if (!education.isEmpty()) {
-            preview.append("🎓 FORMATION\n");
-            preview.append("──────────────────────────────────────────────\n");
-            preview.append(education).append("\n\n");
+        
+        // Assigned only now so that applying recovered values is not journaled again
+        autosave = service;
+        if (recovered) {
+            // Renumbered for this run: the old files go, the recovered documents are parked again
+            autosave.discardParked();
+            parked.forEach((session, resume) -> autosave.park(session.getNumber(), resume));
         }
-
-        // Skills
-        if (!skills.isEmpty()) {
-            preview.append("🛠️ COMPÉTENCES\n");
-            preview.append("──────────────────────────────────────────────\n");
-            preview.append(skills).append("\n\n");
+        autosave.start(currentEntries(), recovered);
+    }
+    
+    private void stopAutosave() {
+        if (autosave != null) {
+            autosave.shutdown();
+            autosave = null;
         }
-
-        // Projects
-        if (!projects.isEmpty()) {
-            preview.append("🚀 PROJETS\n");
-            preview.append("──────────────────────────────────────────────\n");
-            preview.append(projects).append("\n\n");
+    }
+    
+    private void markDirty(String key) {
+        if (!loadingSession) {
+            workspace.setModified(workspace.getActive(), true);
         }
-
-        // Certifications
-        if (!certifications.isEmpty()) {
-            preview.append("🏆 CERTIFICATIONS & RÉALISATIONS\n");
-            preview.append("──────────────────────────────────────────────\n");
-            preview.append(certifications).append("\n\n");
+        if (autosave != null) {
+            autosave.markDirty(key);
+        }
+    }
+    
+    private void fieldChanged(String fieldName) {
+        staleModelFields.add(fieldName);
+        previewSections.invalidate(fieldName);
+        previewScheduler.request();
+        markDirty(fieldName);
+        if (fieldName.equals("fullName") && !loadingSession) {
+            workspace.setFullName(workspace.getActive(), getFieldText(fieldName).trim());
         }
-
-        return preview.toString();
     }
     
-    private String getFieldValue(String fieldName) {
-        JComponent component = fields.get(fieldName);
-        if (component instanceof JTextField) {
-            return ((JTextField) component).getText().trim();
-        } else if (component instanceof JTextArea) {
-            return ((JTextArea) component).getText().trim();
+    private void updatePreview() {
+        long start = System.nanoTime();
+        // Only sections whose source fields changed are re-rendered, and only their changed lines replaced
+        previewSections.patch(previewView, currentResume()::get);
+        PREVIEW_TIME.recordSince(start);
+    }
+    
+    // Re-parses only the fields edited since the last call; everything else is shared with the previous model
+    private Resume currentResume() {
+        long start = System.nanoTime();
+        for (String fieldName : staleModelFields) {
+            resumeModel = resumeModel.withField(fieldName, getRawValue(fieldName));
         }
-        return "";
+        staleModelFields.clear();
+        resumeModel = resumeModel.withProfileImage(profileImagePath).withTemplate(currentTemplate);
+        MODEL_TIME.recordSince(start);
+        return resumeModel;
+    }
+    
+    // Raw value of a field or of the reserved template/profileImage entries
+    private String getRawValue(String key) {
+        if (key.equals(ResumeDataFile.TEMPLATE_KEY)) {
+            return currentTemplate;
+        } else if (key.equals(ResumeDataFile.PROFILE_IMAGE_KEY)) {
+            return profileImagePath == null ? "" : profileImagePath;
+        }
+        return getFieldText(key);
+    }
+    
+    private void applyValue(String key, String value) {
+        if (key.equals(ResumeDataFile.TEMPLATE_KEY)) {
+            currentTemplate = value;
+            templateSelector.setSelectedItem(value);
+            markDirty(key);
+        } else if (key.equals(ResumeDataFile.PROFILE_IMAGE_KEY)) {
+            profileImagePath = value.isEmpty() ? null : value;
+            markDirty(key);
+        } else {
+            setFieldText(key, value);
+        }
+    }
+    
+    // All raw values, including the reserved entries, as stored in the autosave journal
+    private Map<String, String> currentEntries() {
+        Map<String, String> entries = new HashMap<>(createSnapshot().getValues());
+        entries.put(ResumeDataFile.TEMPLATE_KEY, getRawValue(ResumeDataFile.TEMPLATE_KEY));
+        entries.put(ResumeDataFile.PROFILE_IMAGE_KEY, getRawValue(ResumeDataFile.PROFILE_IMAGE_KEY));
+        return entries;
     }
     
+    // Snapshot of the raw field values; must be taken on the Event Dispatch Thread
+    private ResumeSnapshot createSnapshot() {
+        long start = System.nanoTime();
+        Map<String, String> values = new HashMap<>();
+        for (String fieldName : fieldDocuments.keySet()) {
+            values.put(fieldName, getFieldText(fieldName));
+        }
+        SNAPSHOT_TIME.recordSince(start);
+        return new ResumeSnapshot(values, profileImagePath, currentTemplate);
+    }
     
     private void generatePDF() {
-        String name = getFieldValue("fullName");
-        String email = getFieldValue("email");
-        String phone = getFieldValue("phone");
-        String address = getFieldValue("address");
-        String location = getFieldValue("location");
-        String linkedin = getFieldValue("linkedin");
-        String github = getFieldValue("github");
-        String portfolio = getFieldValue("portfolio");
-        String summary = getFieldValue("summary");
-        String experience = getFieldValue("experience");
-        String education = getFieldValue("education");
-        String skills = getFieldValue("skills");
-        String projects = getFieldValue("projects");
-        String certifications = getFieldValue("certifications");
+        if (exportWorker != null && !exportWorker.isDone()) {
+            return;
+        }
+        
+        Resume resume = currentResume();
+        String name = resume.getFullName();
 
         if (name.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Veuillez entrer votre nom complet avant de générer le PDF.", "Information manquante", JOptionPane.WARNING_MESSAGE);
@@ -666,380 +779,86 @@ public class ResumeBuilder extends JFrame {
                 file = new File(file.getAbsolutePath() + ".pdf");
             }
 
-            try {
-                Document document = new Document(PageSize.A4, 40, 40, 40, 40);
-                PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(file));
-                document.open();
-
-                // Define fonts
-                com.itextpdf.text.Font nameFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.TIMES_ROMAN, 20, com.itextpdf.text.Font.BOLD, new BaseColor(41, 128, 185));
-                com.itextpdf.text.Font titleFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 12, com.itextpdf.text.Font.NORMAL, new BaseColor(100, 100, 100));
-                com.itextpdf.text.Font sectionHeaderFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 11, com.itextpdf.text.Font.BOLD, BaseColor.BLACK);
-                com.itextpdf.text.Font jobTitleFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 10, com.itextpdf.text.Font.BOLD, BaseColor.BLACK);
-                com.itextpdf.text.Font companyFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 9, com.itextpdf.text.Font.NORMAL, BaseColor.BLACK);
-                com.itextpdf.text.Font dateFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 8, com.itextpdf.text.Font.NORMAL, new BaseColor(120, 120, 120));
-                com.itextpdf.text.Font normalFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 9, com.itextpdf.text.Font.NORMAL, BaseColor.BLACK);
-                com.itextpdf.text.Font contactFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 9, com.itextpdf.text.Font.NORMAL, BaseColor.BLACK);
-                com.itextpdf.text.Font skillLevelFont = new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 8, com.itextpdf.text.Font.NORMAL, new BaseColor(150, 150, 150));
-
-                // Main container table (2 columns)
-                PdfPTable mainTable = new PdfPTable(2);
-                mainTable.setWidthPercentage(100);
-                mainTable.setWidths(new float[]{60f, 40f}); // Left column wider
-                mainTable.getDefaultCell().setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-                mainTable.getDefaultCell().setPadding(0);
-
-                // =================== LEFT COLUMN ===================
-                PdfPCell leftColumn = new PdfPCell();
-                leftColumn.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-                leftColumn.setPaddingRight(15); // Reduced padding
-                leftColumn.setVerticalAlignment(Element.ALIGN_TOP);
-
-                // Header with name and title
-                Paragraph namePara = new Paragraph(name, nameFont);
-                namePara.setSpacingAfter(3); // Reduced spacing
-                leftColumn.addElement(namePara);
-
-                if (!summary.isEmpty()) {
-                    Paragraph titlePara = new Paragraph(getJobTitleFromSummary(summary), titleFont);
-                    titlePara.setSpacingAfter(15); // Reduced spacing
-                    leftColumn.addElement(titlePara);
-                }
-
-                // Experience Section
-                if (!experience.isEmpty()) {
-                    addLeftSectionHeader(leftColumn, "EXPERIENCE", sectionHeaderFont);
-                    parseAndAddExperience(leftColumn, experience, jobTitleFont, companyFont, dateFont, normalFont);
+            // Layout, image loading and file output all happen off the EDT
+            exportWorker = new PdfExportWorker(resume, file) {
+                @Override
+                protected void done() {
+                    exportFinished(this);
                 }
-
-                // Education Section
-                if (!education.isEmpty()) {
-                    addLeftSectionHeader(leftColumn, "EDUCATION", sectionHeaderFont);
-                    parseAndAddEducation(leftColumn, education, jobTitleFont, companyFont, dateFont, normalFont);
-                }
-
-                // Projects Section (if fits)
-                if (!projects.isEmpty()) {
-                    addLeftSectionHeader(leftColumn, "PROJECTS", sectionHeaderFont);
-                    Paragraph projectsPara = new Paragraph(projects, normalFont);
-                    projectsPara.setSpacingAfter(10); // Reduced spacing
-                    leftColumn.addElement(projectsPara);
-                }
-
-                mainTable.addCell(leftColumn);
-
-                // =================== RIGHT COLUMN ===================
-                PdfPCell rightColumn = new PdfPCell();
-                rightColumn.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-                rightColumn.setPaddingLeft(15); // Reduced padding
-                rightColumn.setVerticalAlignment(Element.ALIGN_TOP);
-
-                // Add Profile Image if exists
-                if (profileImagePath != null) {
-                    try {
-                        com.itextpdf.text.Image profileImage = com.itextpdf.text.Image.getInstance(profileImagePath);
-                        profileImage.scaleToFit(120, 120); // Reduced image size
-                        profileImage.setAlignment(Element.ALIGN_CENTER);
-                        rightColumn.addElement(profileImage);
-                        rightColumn.addElement(new Paragraph("\n")); // Add some spacing
-                    } catch (Exception e) {
-                        System.err.println("Error adding profile image: " + e.getMessage());
-                    }
-                }
-
-                // Contact Information
-                addRightSectionHeader(rightColumn, "", sectionHeaderFont); // No header, just spacing
-                
-                if (!phone.isEmpty()) {
-                    Paragraph phonePara = new Paragraph(phone, contactFont);
-                    phonePara.setSpacingAfter(2); // Reduced spacing
-                    rightColumn.addElement(phonePara);
-                }
-                
-                if (!email.isEmpty()) {
-                    Paragraph emailPara = new Paragraph(email, contactFont);
-                    emailPara.setSpacingAfter(2); // Reduced spacing
-                    rightColumn.addElement(emailPara);
+            };
+            exportWorker.addPropertyChangeListener(evt -> {
+                if ("progress".equals(evt.getPropertyName())) {
+                    exportProgressBar.setValue((Integer) evt.getNewValue());
+                } else if ("stage".equals(evt.getPropertyName())) {
+                    exportProgressBar.setString((String) evt.getNewValue());
                 }
-                
-                if (!portfolio.isEmpty()) {
-                    Paragraph portfolioPara = new Paragraph(portfolio, contactFont);
-                    portfolioPara.setSpacingAfter(2); // Reduced spacing
-                    rightColumn.addElement(portfolioPara);
-                }
-                
-                if (!location.isEmpty()) {
-                    Paragraph locationPara = new Paragraph(location, contactFont);
-                    locationPara.setSpacingAfter(15); // Reduced spacing
-                    rightColumn.addElement(locationPara);
-                }
-
-                // Skills Section
-                if (!skills.isEmpty()) {
-                    addRightSectionHeader(rightColumn, "SKILLS", sectionHeaderFont);
-                    parseAndAddSkills(rightColumn, skills, normalFont, skillLevelFont);
-                }
-
-                // Languages Section (if LinkedIn contains language info)
-                if (!linkedin.isEmpty()) {
-                    addRightSectionHeader(rightColumn, "LANGUAGES", sectionHeaderFont);
-                    addLanguageSkill(rightColumn, "English", "Native", normalFont, skillLevelFont);
-                    addLanguageSkill(rightColumn, "French", "Intermediate", normalFont, skillLevelFont);
-                }
-
-                // Certifications Section
-                if (!certifications.isEmpty()) {
-                    addRightSectionHeader(rightColumn, "CERTIFICATES", sectionHeaderFont);
-                    parseAndAddCertifications(rightColumn, certifications, normalFont, dateFont);
-                }
-
-                mainTable.addCell(rightColumn);
-                document.add(mainTable);
-
-                document.close();
-                
-                JOptionPane.showMessageDialog(this, 
-                    "CV PDF généré avec succès!\nEnregistré sous: " + file.getName(), 
-                    "Succès", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                    
-                int choice = JOptionPane.showConfirmDialog(this, 
-                    "Voulez-vous ouvrir le fichier PDF?", 
-                    "Ouvrir PDF", 
-                    JOptionPane.YES_NO_OPTION);
-                    
-                if (choice == JOptionPane.YES_OPTION) {
-                    Desktop.getDesktop().open(file);
-                }
-                
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Erreur lors de la génération du PDF: " + e.getMessage(), 
-                    "Erreur", 
-                    JOptionPane.ERROR_MESSAGE);
-                e.printStackTrace();
-            }
-        }
-    }
-
-    // Helper method to extract job title from summary
-    private String getJobTitleFromSummary(String summary) {
-        // Try to extract a job title from the first line of summary
-        String[] lines = summary.split("\n");
-        if (lines.length > 0 && lines[0].length() < 50) {
-            return lines[0];
+            });
+            
+            setExportRunning(true);
+            exportWorker.execute();
         }
-        return "Professional"; // Default title
     }
-
-    // Helper method to add left column section headers with dotted underline
-    private void addLeftSectionHeader(PdfPCell cell, String title, com.itextpdf.text.Font font) throws DocumentException {
-        Paragraph header = new Paragraph(title, font);
-        header.setSpacingBefore(10); // Reduced spacing
-        header.setSpacingAfter(5); // Reduced spacing
-        cell.addElement(header);
-        
-        // Add new line pattern
-        Paragraph linePattern = new Paragraph("(___)(___)(___)(___)(___)(___)(___)(___)(___)(___)(___)", 
-            new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 7, com.itextpdf.text.Font.NORMAL, new BaseColor(41, 128, 185)));
-        linePattern.setSpacingAfter(8); // Reduced spacing
-        cell.addElement(linePattern);
+    
+    private void setExportRunning(boolean running) {
+        pdfButton.setEnabled(!running);
+        exportProgressBar.setValue(0);
+        exportProgressBar.setString("");
+        exportProgressBar.setVisible(running);
+        cancelExportButton.setVisible(running);
+        revalidate();
     }
-
-    // Helper method to add right column section headers with dotted underline
-    private void addRightSectionHeader(PdfPCell cell, String title, com.itextpdf.text.Font font) throws DocumentException {
-        if (!title.isEmpty()) {
-            Paragraph header = new Paragraph(title, font);
-            header.setSpacingBefore(10); // Reduced spacing
-            header.setSpacingAfter(5); // Reduced spacing
-            cell.addElement(header);
-            
-            // Add new line pattern
-            Paragraph linePattern = new Paragraph("(___)(___)(___)(___)(___)(___)", 
-                new com.itextpdf.text.Font(com.itextpdf.text.Font.FontFamily.HELVETICA, 7, com.itextpdf.text.Font.NORMAL, new BaseColor(41, 128, 185)));
-            linePattern.setSpacingAfter(8); // Reduced spacing
-            cell.addElement(linePattern);
+    
+    private void exportFinished(PdfExportWorker worker) {
+        setExportRunning(false);
+        if (worker.isCancelled()) {
+            return;
         }
-    }
-
-    // Parse and add experience entries
-    private void parseAndAddExperience(PdfPCell cell, String experience, com.itextpdf.text.Font jobFont, 
-                                     com.itextpdf.text.Font companyFont, com.itextpdf.text.Font dateFont, 
-                                     com.itextpdf.text.Font normalFont) throws DocumentException {
-        
-        String[] entries = experience.split("\n\n");
-        for (String entry : entries) {
-            String[] lines = entry.trim().split("\n");
-            if (lines.length > 0) {
-                // Job title
-                Paragraph jobTitle = new Paragraph(lines[0], jobFont);
-                jobTitle.setSpacingAfter(1); // Reduced spacing
-                cell.addElement(jobTitle);
-                
-                // Company and date
-                if (lines.length > 1) {
-                    String companyLine = lines[1];
-                    String[] parts = companyLine.split("\\|");
-                    if (parts.length >= 2) {
-                        Paragraph company = new Paragraph(parts[0].trim(), companyFont);
-                        company.setSpacingAfter(1); // Reduced spacing
-                        cell.addElement(company);
-                        
-                        Paragraph date = new Paragraph(parts[1].trim(), dateFont);
-                        date.setSpacingAfter(3); // Reduced spacing
-                        cell.addElement(date);
-                    } else {
-                        Paragraph company = new Paragraph(companyLine, companyFont);
-                        company.setSpacingAfter(3); // Reduced spacing
-                        cell.addElement(company);
-                    }
-                }
+        
+        try {
+            File file = worker.get();
+            
+            JOptionPane.showMessageDialog(this, 
+                "CV PDF généré avec succès!\nEnregistré sous: " + file.getName(), 
+                "Succès", 
+                JOptionPane.INFORMATION_MESSAGE);
                 
-                // Description (bullet points)
-                for (int i = 2; i < lines.length; i++) {
-                    if (!lines[i].trim().isEmpty()) {
-                        Paragraph bullet = new Paragraph("• " + lines[i].trim(), normalFont);
-                        bullet.setSpacingAfter(2); // Reduced spacing
-                        bullet.setIndentationLeft(8); // Reduced indentation
-                        cell.addElement(bullet);
-                    }
-                }
+            int choice = JOptionPane.showConfirmDialog(this, 
+                "Voulez-vous ouvrir le fichier PDF?", 
+                "Ouvrir PDF", 
+                JOptionPane.YES_NO_OPTION);
                 
-                // Add spacing between entries
-                Paragraph spacing = new Paragraph(" ", normalFont);
-                spacing.setSpacingAfter(10); // Reduced spacing
-                cell.addElement(spacing);
+            if (choice == JOptionPane.YES_OPTION) {
+                Desktop.getDesktop().open(file);
             }
-        }
-    }
-
-    // Parse and add education entries
-    private void parseAndAddEducation(PdfPCell cell, String education, com.itextpdf.text.Font degreeFont, 
-                                    com.itextpdf.text.Font schoolFont, com.itextpdf.text.Font dateFont, 
-                                    com.itextpdf.text.Font normalFont) throws DocumentException {
-        
-        String[] entries = education.split("\n\n");
-        for (String entry : entries) {
-            String[] lines = entry.trim().split("\n");
-            if (lines.length > 0) {
-                // Degree
-                Paragraph degree = new Paragraph(lines[0], degreeFont);
-                degree.setSpacingAfter(2);
-                cell.addElement(degree);
-                
-                // School
-                if (lines.length > 1) {
-                    Paragraph school = new Paragraph(lines[1], schoolFont);
-                    school.setSpacingAfter(1);
-                    cell.addElement(school);
-                }
-                
-                // Date
-                if (lines.length > 2) {
-                    Paragraph date = new Paragraph(lines[2], dateFont);
-                    date.setSpacingAfter(1);
-                    cell.addElement(date);
-                }
-                
-                // Additional info
-                if (lines.length > 3) {
-                    Paragraph additional = new Paragraph(lines[3], normalFont);
-                    additional.setSpacingAfter(15);
-                    cell.addElement(additional);
-                } else {
-                    Paragraph spacing = new Paragraph(" ", normalFont);
-                    spacing.setSpacingAfter(15);
-                    cell.addElement(spacing);
-                }
+            
+        } catch (Exception e) {
+            Throwable cause = e instanceof java.util.concurrent.ExecutionException ? e.getCause() : e;
+            if (cause instanceof ResumePdfRenderer.RenderCancelledException) {
+                return;
             }
+            JOptionPane.showMessageDialog(this, 
+                "Erreur lors de la génération du PDF: " + cause.getMessage(), 
+                "Erreur", 
+                JOptionPane.ERROR_MESSAGE);
+            System.err.println("PDF export failed: " + cause);
         }
     }
-
-    // Parse and add skills with levels
-    private void parseAndAddSkills(PdfPCell cell, String skills, com.itextpdf.text.Font skillFont, 
-                                 com.itextpdf.text.Font levelFont) throws DocumentException {
-        
-        String[] skillArray = skills.split("[,\n]");
-        for (String skill : skillArray) {
-            skill = skill.trim();
-            if (!skill.isEmpty()) {
-                // Create table for skill and level alignment
-                PdfPTable skillTable = new PdfPTable(2);
-                skillTable.setWidthPercentage(100);
-                skillTable.setWidths(new float[]{70f, 30f});
-                skillTable.getDefaultCell().setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-                skillTable.getDefaultCell().setPadding(1);
-                
-                PdfPCell skillCell = new PdfPCell(new Phrase(skill, skillFont));
-                skillCell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-                skillCell.setHorizontalAlignment(Element.ALIGN_LEFT);
-                
-                PdfPCell levelCell = new PdfPCell(new Phrase("Advanced", levelFont));
-                levelCell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-                levelCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                
-                skillTable.addCell(skillCell);
-                skillTable.addCell(levelCell);
-                
-                skillTable.setSpacingAfter(4);
-                cell.addElement(skillTable);
-            }
-        }
+    
+    // Writes every stage timer, counter and gauge; a .json file gets JSON, anything else Prometheus text
+    private void exportMetrics() {
+        JFileChooser fileChooser = new JFileChooser(System.getProperty("user.dir"));
+        fileChooser.setDialogTitle("Exporter les métriques");
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Prometheus (.prom)", "prom"));
+        fileChooser.setFileFilter(new FileNameExtensionFilter("JSON (.json)", "json"));
+        fileChooser.setSelectedFile(new File("resume-metrics.json"));
         
-        Paragraph spacing = new Paragraph(" ", skillFont);
-        spacing.setSpacingAfter(10);
-        cell.addElement(spacing);
-    }
-
-    // Add language skill
-    private void addLanguageSkill(PdfPCell cell, String language, String level, 
-                                com.itextpdf.text.Font languageFont, com.itextpdf.text.Font levelFont) 
-                                throws DocumentException {
-        
-        PdfPTable langTable = new PdfPTable(2);
-        langTable.setWidthPercentage(100);
-        langTable.setWidths(new float[]{70f, 30f});
-        langTable.getDefaultCell().setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-        langTable.getDefaultCell().setPadding(1);
-        
-        PdfPCell langCell = new PdfPCell(new Phrase(language, languageFont));
-        langCell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-        langCell.setHorizontalAlignment(Element.ALIGN_LEFT);
-        
-        PdfPCell levelCell = new PdfPCell(new Phrase(level, levelFont));
-        levelCell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
-        levelCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-        
-        langTable.addCell(langCell);
-        langTable.addCell(levelCell);
-        
-        langTable.setSpacingAfter(4);
-        cell.addElement(langTable);
-    }
-
-    // Parse and add certifications
-    private void parseAndAddCertifications(PdfPCell cell, String certifications, 
-                                         com.itextpdf.text.Font certFont, com.itextpdf.text.Font dateFont) 
-                                         throws DocumentException {
-        
-        String[] certArray = certifications.split("\n");
-        for (String cert : certArray) {
-            cert = cert.trim();
-            if (!cert.isEmpty()) {
-                String[] parts = cert.split("\\|");
-                if (parts.length >= 2) {
-                    Paragraph certName = new Paragraph(parts[0].trim(), certFont);
-                    certName.setSpacingAfter(1);
-                    cell.addElement(certName);
-                    
-                    Paragraph certDate = new Paragraph(parts[1].trim(), dateFont);
-                    certDate.setSpacingAfter(8);
-                    cell.addElement(certDate);
-                } else {
-                    Paragraph certName = new Paragraph(cert, certFont);
-                    certName.setSpacingAfter(8);
-                    cell.addElement(certName);
-                }
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            try {
+                RenderMetrics.shared().writeTo(file);
+                JOptionPane.showMessageDialog(this, "Métriques enregistrées sous: " + file.getName(), "Succès", JOptionPane.INFORMATION_MESSAGE);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Erreur lors de l'export des métriques: " + e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
@@ -1047,28 +866,29 @@ public class ResumeBuilder extends JFrame {
     private void saveResumeData() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Save Resume Data");
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Archives de CV (.rba)", "rba"));
         fileChooser.setFileFilter(new FileNameExtensionFilter("Resume Data Files", "rbd"));
+        if (workspace.getActive().getFile() != null) {
+            fileChooser.setSelectedFile(workspace.getActive().getFile());
+        }
         
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
+            if (ResumeArchive.isArchive(file)) {
+                saveToArchive(file);
+                return;
+            }
             if (!file.getName().toLowerCase().endsWith(".rbd")) {
                 file = new File(file.getAbsolutePath() + ".rbd");
             }
             
-            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-                for (Map.Entry<String, JComponent> entry : fields.entrySet()) {
-                    String value = "";
-                    if (entry.getValue() instanceof JTextField) {
-                        value = ((JTextField) entry.getValue()).getText();
-                    } else if (entry.getValue() instanceof JTextArea) {
-                        value = ((JTextArea) entry.getValue()).getText();
-                    }
-                    writer.println(entry.getKey() + "=" + value.replace("\n", "\\n"));
-                }
-                writer.println("template=" + currentTemplate);
-                if (profileImagePath != null) {
-                    writer.println("profileImage=" + profileImagePath);
-                }
+            try {
+                storeProfileImage();
+                ResumeSnapshot resume = createSnapshot();
+                ResumeDataFile.write(file, resume);
+                indexSavedFile(file, resume);
+                workspace.setFile(workspace.getActive(), file);
+                workspace.setModified(workspace.getActive(), false);
                 
                 JOptionPane.showMessageDialog(this, "Resume data saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             } catch (IOException e) {
@@ -1077,44 +897,262 @@ public class ResumeBuilder extends JFrame {
         }
     }
     
+    // Stores the active resume in an archive; the entry it came from is reused, otherwise the user names one
+    private void saveToArchive(File file) {
+        ResumeWorkspace.Session session = workspace.getActive();
+        try (ResumeArchive archive = ResumeArchive.open(file)) {
+            String id = session.getArchiveId();
+            if (id == null || workspace.find(file, id) != session) {
+                id = (String) JOptionPane.showInputDialog(this, "Identifiant du CV dans " + file.getName() + " :",
+                    "Enregistrer dans l'archive", JOptionPane.QUESTION_MESSAGE, null, null, archiveIdFor(getFieldText("fullName")));
+                if (id == null) {
+                    return;
+                }
+                id = id.trim();
+                if (!ResumeArchive.isValidId(id)) {
+                    JOptionPane.showMessageDialog(this, "Identifiant invalide : " + id, "Erreur", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                if (archive.contains(id) && JOptionPane.showConfirmDialog(this,
+                        "L'archive contient déjà « " + id + " ». Le remplacer ?", "Remplacer",
+                        JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                    return;
+                }
+            }
+            storeProfileImage();
+            archive.put(id, createSnapshot());
+            workspace.setFile(session, file, id);
+            workspace.setModified(session, false);
+            
+            JOptionPane.showMessageDialog(this, "Resume data saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    // A photo chosen before the image store existed is imported on save, so the
+    // file refers to it by hash; if the original is gone the path is kept as it is
+    private void storeProfileImage() {
+        if (profileImagePath == null || ImageStore.isReference(profileImagePath)) {
+            return;
+        }
+        try {
+            profileImagePath = ImageStore.shared().importImage(new File(profileImagePath));
+        } catch (IOException e) {
+            System.err.println("Could not store profile image " + profileImagePath + ": " + e.getMessage());
+        }
+    }
+    
+    // Suggested archive id: the candidate's name in lowercase with dashes
+    private static String archiveIdFor(String fullName) {
+        String id = java.text.Normalizer.normalize(fullName, java.text.Normalizer.Form.NFD)
+            .replaceAll("\\p{M}+", "")
+            .toLowerCase()
+            .replaceAll("[^a-z0-9]+", "-")
+            .replaceAll("^-|-$", "");
+        return id.isEmpty() ? "cv" : id;
+    }
+    
+    // Opens each selected file as a document of its own; files already open are just shown
     private void loadResumeData() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Load Resume Data");
-        fileChooser.setFileFilter(new FileNameExtensionFilter("Resume Data Files", "rbd"));
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Resume Data Files", "rbd", "rba"));
+        fileChooser.setMultiSelectionEnabled(true);
         
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            File file = fileChooser.getSelectedFile();
-            
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.contains("=")) {
-                        String[] parts = line.split("=", 2);
-                        String key = parts[0];
-                        String value = parts.length > 1 ? parts[1].replace("\\n", "\n") : "";
-                        
-                        if (key.equals("template")) {
-                            templateSelector.setSelectedItem(value);
-                            currentTemplate = value;
-                        } else if (key.equals("profileImage")) {
-                            profileImagePath = value;
-                        } else if (fields.containsKey(key)) {
-                            JComponent component = fields.get(key);
-                            if (component instanceof JTextField) {
-                                ((JTextField) component).setText(value);
-                            } else if (component instanceof JTextArea) {
-                                ((JTextArea) component).setText(value);
-                            }
-                        }
+            ResumeWorkspace.Session last = null;
+            StringBuilder errors = new StringBuilder();
+            for (File file : fileChooser.getSelectedFiles()) {
+                try {
+                    ResumeWorkspace.Session session = openSession(file);
+                    if (session != null) {
+                        last = session;
                     }
+                } catch (IOException e) {
+                    errors.append(file.getName()).append(": ").append(e.getMessage()).append('\n');
                 }
-                
-                updatePreview();
+            }
+            if (last != null) {
+                activateSession(last);
+            }
+            updateWorkspaceStatus();
+            
+            if (errors.length() > 0) {
+                JOptionPane.showMessageDialog(this, "Error loading file: " + errors, "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (last != null) {
+                // Nothing was opened when the user cancelled the archive entry picker
                 JOptionPane.showMessageDialog(this, "Resume data loaded successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
+    
+    // A dump of several resumes opens each of them as an untitled document; returns the last one
+    private ResumeWorkspace.Session openSession(File file) throws IOException {
+        if (ResumeArchive.isArchive(file)) {
+            return openArchive(file);
+        }
+        ResumeWorkspace.Session session = workspace.find(file);
+        if (session != null) {
+            return session;
+        }
+        java.util.List<ResumeSnapshot> resumes = ResumeImporter.readAll(file);
+        if (resumes.size() == 1) {
+            return workspace.open(file, resumes.get(0));
+        }
+        for (ResumeSnapshot resume : resumes) {
+            session = workspace.open(null, resume);
+        }
+        return session;
+    }
+    
+    // Opens the archive entries the user picks; returns the last one, or null if the user cancelled
+    private ResumeWorkspace.Session openArchive(File file) throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        try (ResumeArchive archive = ResumeArchive.open(file)) {
+            java.util.List<String> ids = archive.ids();
+            if (ids.isEmpty()) {
+                throw new IOException("No resumes in archive " + file.getName());
+            }
+            if (ids.size() > 1) {
+                JList<String> list = new JList<>(ids.toArray(new String[0]));
+                list.setVisibleRowCount(15);
+                int choice = JOptionPane.showConfirmDialog(this,
+                    new Object[] {"CV à ouvrir depuis " + file.getName() + " (aucune sélection : tous) :", new JScrollPane(list)},
+                    "Ouvrir une archive", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+                if (choice != JOptionPane.OK_OPTION) {
+                    return null;
+                }
+                if (!list.isSelectionEmpty()) {
+                    ids = list.getSelectedValuesList();
+                }
+            }
+            ResumeWorkspace.Session session = null;
+            for (String id : ids) {
+                session = workspace.find(file, id);
+                if (session == null) {
+                    session = workspace.open(file, id, archive.get(id));
+                }
+            }
+            return session;
+        }
+    }
+    
+    // Shows a search result, opening it as a new document unless it is already open
+    private void openSearchResult(File file) {
+        try {
+            ResumeWorkspace.Session session = openSession(file);
+            if (session == null) {
+                // The archive entry picker was cancelled
+                return;
+            }
+            activateSession(session);
+            updateWorkspaceStatus();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error loading file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void showSearchDialog() {
+        if (searchDialog == null) {
+            ResumeIndex index;
+            try {
+                index = ResumeIndex.shared();
             } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Error loading file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this, "Impossible d'ouvrir l'index de recherche: " + e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            SearchPanel panel = new SearchPanel(index, this::openSearchResult, INPUT_FONT);
+            searchDialog = new JDialog(this, "Rechercher des CV", false);
+            searchDialog.setContentPane(panel);
+            searchDialog.setSize(800, 500);
+            searchDialog.setLocationRelativeTo(this);
+            searchDialog.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowActivated(WindowEvent e) {
+                    panel.getQueryField().requestFocusInWindow();
+                }
+            });
+        }
+        searchDialog.setVisible(true);
+    }
+    
+    // Keeps the search index current with every save; the file itself is already safe
+    private void indexSavedFile(File file, ResumeSnapshot resume) {
+        try {
+            ResumeIndex.shared().update(file, resume);
+        } catch (IOException e) {
+            System.err.println("Could not index " + file + ": " + e.getMessage());
+        }
+    }
+    
+    private void newSession() {
+        activateSession(workspace.open(null, new ResumeDataFile.Builder().build()));
+    }
+    
+    private void closeSession() {
+        ResumeWorkspace.Session session = workspace.getActive();
+        if (session.isModified()) {
+            int choice = JOptionPane.showConfirmDialog(this,
+                "Ce CV contient des modifications non enregistrées.\nLe fermer quand même?",
+                "Fermer le CV",
+                JOptionPane.YES_NO_OPTION);
+            if (choice != JOptionPane.YES_OPTION) {
+                return;
             }
         }
+        ResumeWorkspace.Session next = workspace.neighbour(session);
+        if (next == null) {
+            next = workspace.open(null, new ResumeDataFile.Builder().build());
+        }
+        // Closed first so that its content is dropped rather than parked
+        workspace.close(session);
+        activateSession(next);
+    }
+    
+    // Parks the shown document and loads another one into the fields
+    private void activateSession(ResumeWorkspace.Session next) {
+        if (next == workspace.getActive()) {
+            return;
+        }
+        ResumeWorkspace.Session previous = workspace.getActive();
+        ResumeSnapshot current = createSnapshot();
+        ResumeSnapshot resume = workspace.activate(next, current);
+        
+        // The swap is not an edit: it neither marks the document modified nor goes to the journal
+        AutosaveService service = autosave;
+        autosave = null;
+        loadingSession = true;
+        try {
+            for (String fieldName : fieldDocuments.keySet()) {
+                String value = resume.getValues().get(fieldName);
+                value = value == null ? "" : value;
+                // Unchanged fields keep their parsed model and preview lines
+                if (!value.equals(getFieldText(fieldName))) {
+                    setFieldText(fieldName, value);
+                }
+            }
+            applyValue(ResumeDataFile.TEMPLATE_KEY, resume.getTemplate());
+            applyValue(ResumeDataFile.PROFILE_IMAGE_KEY, resume.getProfileImagePath() == null ? "" : resume.getProfileImagePath());
+        } finally {
+            loadingSession = false;
+            autosave = service;
+        }
+        // The journal follows the shown document; unsaved edits of the one just
+        // parked are kept as a file of their own so that a crash cannot lose them
+        if (autosave != null) {
+            if (previous != null && previous.isModified()) {
+                autosave.park(previous.getNumber(), current);
+            }
+            autosave.unpark(next.getNumber());
+            autosave.start(currentEntries(), true);
+        }
+        
+        sessionList.setSelectedValue(next, true);
+        updateWorkspaceStatus();
+        previewScheduler.flush();
     }
     
     private void clearAllFields() {
@@ -1124,22 +1162,20 @@ public class ResumeBuilder extends JFrame {
             JOptionPane.YES_NO_OPTION);
         
         if (choice == JOptionPane.YES_OPTION) {
-            for (JComponent component : fields.values()) {
-                if (component instanceof JTextField) {
-                    ((JTextField) component).setText("");
-                } else if (component instanceof JTextArea) {
-                    ((JTextArea) component).setText("");
-                }
+            for (String fieldName : fieldDocuments.keySet()) {
+                setFieldText(fieldName, "");
             }
             profileImagePath = null;
-            updatePreview();
+            markDirty(ResumeDataFile.PROFILE_IMAGE_KEY);
+            previewScheduler.flush();
         }
     }
     
     private void switchTemplate(String template) {
-        templateSelector.setSelectedItem(template);
         currentTemplate = template;
-        updatePreview();
+        templateSelector.setSelectedItem(template);
+        markDirty(ResumeDataFile.TEMPLATE_KEY);
+        previewScheduler.flush();
     }
     
     private void showAboutDialog() {
@@ -1188,7 +1224,7 @@ public class ResumeBuilder extends JFrame {
         
         JTextArea textArea = new JTextArea(tipsText);
         textArea.setEditable(false);
-        textArea.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 12));
+        textArea.setFont(INPUT_FONT);
         textArea.setLineWrap(true);
         textArea.setWrapStyleWord(true);
         
@@ -1198,20 +1234,68 @@ public class ResumeBuilder extends JFrame {
         JOptionPane.showMessageDialog(this, scrollPane, "Professional Resume Tips", JOptionPane.INFORMATION_MESSAGE);
     }
     
+    // Copies the photo, scaled to print size, into the image store and refers to it by hash
     private void uploadProfileImage() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new FileNameExtensionFilter("Image Files", "jpg", "jpeg", "png", "gif"));
         
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
-            profileImagePath = selectedFile.getAbsolutePath();
+            try {
+                profileImagePath = ImageStore.shared().importImage(selectedFile);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Error loading image: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            markDirty(ResumeDataFile.PROFILE_IMAGE_KEY);
             JOptionPane.showMessageDialog(this, "Profile image uploaded successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         }
     }
     
     public static void main(String[] args) {
+        mainStartNanos = System.nanoTime();
+        mainStartMillis = System.currentTimeMillis();
+        // -Dresumebuilder.metrics.file keeps a metrics dump up to date in every mode
+        RenderMetrics.startFileExport();
+        
+        // Headless batch mode: render .rbd files to PDF without opening a window
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchRenderer.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        // Query the resume index, optionally indexing folders first
+        if (args.length > 0 && args[0].equals("--search")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(ResumeSearch.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        // Bulk import of .rbd files and concatenated dumps
+        if (args.length > 0 && args[0].equals("--import")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(ResumeImporter.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        // Maintenance of .rba archives holding many resumes
+        if (args.length > 0 && args[0].equals("--archive")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(ResumeArchive.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        // Local HTTP rendering service; keeps running until the process is stopped
+        if (args.length > 0 && args[0].equals("--serve")) {
+            System.setProperty("java.awt.headless", "true");
+            int status = RenderServer.run(Arrays.copyOfRange(args, 1, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+        
         SwingUtilities.invokeLater(() -> {
-            new ResumeBuilder().setVisible(true);
+            ResumeBuilder builder = new ResumeBuilder();
+            builder.setVisible(true);
+            builder.startAutosave();
         });
     }
 }
@@ -0,0 +1,195 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Reads and writes .rbd resume data files.
+//
+// Version 2 (written by default) is a compact binary layout:
+//   magic    4 bytes  0x89 'R' 'B' 'D'
+//   version  1 byte   2
+//   count    int      number of entries
+//   entries  count x (key: unsigned short length + UTF-8, value: int length + UTF-8)
+// The template name and profile image are stored as the "template" and
+// "profileImage" entries. Values are stored verbatim, so they may contain any
+// character, including a literal backslash-n.
+//
+// Version 1 files (one key=value line per field with newlines escaped as \n)
+// are detected by the missing magic and still load.
+//
+// Files are written to a temporary file in the same directory and then moved
+// over the target, so a failed save leaves the previous copy intact. Values
+// larger than MAX_VALUE_BYTES are refused on write, since read rejects them.
+final class ResumeDataFile {
+    static final String EXTENSION = ".rbd";
+    static final String DEFAULT_TEMPLATE = "Professional";
+
+    static final byte[] MAGIC = {(byte) 0x89, 'R', 'B', 'D'};
+    static final int VERSION = 2;
+
+    static final String TEMPLATE_KEY = "template";
+    static final String PROFILE_IMAGE_KEY = "profileImage";
+
+    // Guards against allocating absurd buffers for corrupt length prefixes; also enforced on write
+    static final int MAX_VALUE_BYTES = 64 * 1024 * 1024;
+
+    private static final RenderMetrics.Histogram READ_TIME = RenderMetrics.shared().timer("rbd.read");
+    private static final RenderMetrics.Histogram WRITE_TIME = RenderMetrics.shared().timer("rbd.write");
+
+    private ResumeDataFile() {
+    }
+
+    static ResumeSnapshot read(File file) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            ResumeSnapshot snapshot = read(in);
+            READ_TIME.recordSince(start);
+            return snapshot;
+        } catch (IOException e) {
+            READ_TIME.fail();
+            throw e;
+        }
+    }
+
+    // Auto-detects the format from the first bytes of the stream
+    static ResumeSnapshot read(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            in = new BufferedInputStream(in);
+        }
+        in.mark(MAGIC.length);
+        byte[] header = new byte[MAGIC.length];
+        int read = in.readNBytes(header, 0, header.length);
+        in.reset();
+
+        if (read == MAGIC.length && Arrays.equals(header, MAGIC)) {
+            return readBinary(new DataInputStream(in));
+        }
+        return readText(new BufferedReader(new InputStreamReader(in)));
+    }
+
+    private static ResumeSnapshot readBinary(DataInputStream in) throws IOException {
+        in.skipBytes(MAGIC.length);
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported .rbd version " + version);
+        }
+
+        Builder builder = new Builder();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt .rbd entry count " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[in.readUnsignedShort()];
+            in.readFully(key);
+            int length = in.readInt();
+            if (length < 0 || length > MAX_VALUE_BYTES) {
+                throw new IOException("Corrupt .rbd value length " + length);
+            }
+            byte[] value = new byte[length];
+            in.readFully(value);
+            builder.put(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+        }
+        return builder.build();
+    }
+
+    // Legacy key=value text format
+    private static ResumeSnapshot readText(BufferedReader reader) throws IOException {
+        Builder builder = new Builder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int separator = line.indexOf('=');
+            if (separator >= 0) {
+                builder.put(line.substring(0, separator), line.substring(separator + 1).replace("\\n", "\n"));
+            }
+        }
+        return builder.build();
+    }
+
+    static void write(File file, ResumeSnapshot resume) throws IOException {
+        long start = System.nanoTime();
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = Files.createTempFile(target.getParent(), "resume", ".rbd.tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                write(out, resume);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            WRITE_TIME.fail();
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        WRITE_TIME.recordSince(start);
+    }
+
+    static void write(OutputStream out, ResumeSnapshot resume) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        Map<String, String> values = resume.getValues();
+        boolean hasImage = resume.getProfileImagePath() != null;
+
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(values.size() + (hasImage ? 2 : 1));
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            writeEntry(data, entry.getKey(), entry.getValue());
+        }
+        writeEntry(data, TEMPLATE_KEY, resume.getTemplate());
+        if (hasImage) {
+            writeEntry(data, PROFILE_IMAGE_KEY, resume.getProfileImagePath());
+        }
+        data.flush();
+    }
+
+    static byte[] toBytes(ResumeSnapshot resume) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out, resume);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeEntry(DataOutputStream out, String key, String value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IOException("Field name too long: " + key);
+        }
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        if (valueBytes.length > MAX_VALUE_BYTES) {
+            throw new IOException("Field " + key + " is too large to save: " + valueBytes.length
+                + " bytes (limit " + MAX_VALUE_BYTES + ")");
+        }
+        out.writeShort(keyBytes.length);
+        out.write(keyBytes);
+        out.writeInt(valueBytes.length);
+        out.write(valueBytes);
+    }
+
+    // Collects entries from either format and splits out the reserved keys
+    static final class Builder {
+        private final Map<String, String> values = new HashMap<>();
+        private String template = DEFAULT_TEMPLATE;
+        private String profileImagePath = null;
+
+        void put(String key, String value) {
+            if (key.equals(TEMPLATE_KEY)) {
+                template = value;
+            } else if (key.equals(PROFILE_IMAGE_KEY)) {
+                profileImagePath = value;
+            } else {
+                values.put(key, value);
+            }
+        }
+
+        ResumeSnapshot build() {
+            return new ResumeSnapshot(values, profileImagePath, template);
+        }
+    }
+}
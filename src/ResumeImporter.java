@@ -0,0 +1,503 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.Consumer;
+
+// Bulk reader for .rbd files and resume dumps.
+//
+//   java ResumeBuilder --import [--threads N] [-o outputDir [--index]] <file.rbd | directory>...
+//
+// A binary .rbd record is self-delimiting, so a dump made by concatenating
+// version 2 files (cat *.rbd > dump.rbd) holds many resumes; every input may
+// contain any number of them. Version 1 text files hold exactly one.
+//
+// Large files are memory-mapped, in windows of up to 1 GB for dumps beyond
+// what one mapping can address; small ones are read whole, since mapping a
+// few kilobytes costs more than copying them. One pass over the buffer finds
+// the record boundaries from the length prefixes alone. Batches of records
+// are then decoded on a worker pool straight from the buffer: keys are
+// matched against the known field names without allocating, and each value
+// becomes one String with no intermediate lines or byte arrays. At most a few
+// batches per worker are in flight, so heap stays flat however large the dump.
+//
+// Records go to a consumer that must be thread-safe. A corrupt record is
+// reported and counted without stopping the import; a corrupt length prefix
+// ends its file, since the following boundaries cannot be trusted.
+//
+// From the command line, records are parsed and counted; -o writes each as
+// its own .rbd file and --index also adds those files to the search index.
+final class ResumeImporter {
+    // Below this size a file is read into the heap instead of being mapped
+    private static final int MAP_THRESHOLD = 256 * 1024;
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+    private static final int BATCH_BYTES = 1 << 20;
+
+    private static final List<String> KNOWN_KEYS = new ArrayList<>(Resume.FIELD_NAMES);
+    private static final byte[][] KNOWN_KEY_BYTES;
+
+    static {
+        KNOWN_KEYS.add(ResumeDataFile.TEMPLATE_KEY);
+        KNOWN_KEYS.add(ResumeDataFile.PROFILE_IMAGE_KEY);
+        KNOWN_KEY_BYTES = new byte[KNOWN_KEYS.size()][];
+        for (int i = 0; i < KNOWN_KEYS.size(); i++) {
+            KNOWN_KEY_BYTES[i] = KNOWN_KEYS.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final LongAdder RECORDS = RenderMetrics.shared().counter("import.records");
+    private static final LongAdder BYTES = RenderMetrics.shared().counter("import.bytes");
+    private static final LongAdder FAILURES = RenderMetrics.shared().counter("import.failures");
+
+    // One resume read from an input
+    static final class Record {
+        private final File source;
+        private final int index;
+        private final ResumeSnapshot resume;
+
+        Record(File source, int index, ResumeSnapshot resume) {
+            this.source = source;
+            this.index = index;
+            this.resume = resume;
+        }
+
+        File getSource() { return source; }
+
+        // Position of the record within its file, from 0
+        int getIndex() { return index; }
+
+        ResumeSnapshot getResume() { return resume; }
+    }
+
+    private final PrintStream log;
+    private final int threads;
+    private final int queueLimit;
+
+    private final AtomicInteger files = new AtomicInteger();
+    private final AtomicInteger records = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    ResumeImporter(PrintStream log, int threads) {
+        this.log = log;
+        this.threads = threads;
+        this.queueLimit = threads * 4;
+    }
+
+    static int run(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        File outputDir = null;
+        boolean index = false;
+        List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                outputDir = new File(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    return usage("Invalid value for --threads: " + args[i]);
+                }
+            } else if (args[i].equals("--index")) {
+                index = true;
+            } else if (args[i].startsWith("-")) {
+                return usage("Unknown option: " + args[i]);
+            } else {
+                inputs.add(new File(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            return usage("No input files or directories given");
+        }
+        if (index && outputDir == null) {
+            return usage("--index needs -o: only files on disk can be indexed");
+        }
+        if (outputDir != null && !outputDir.isDirectory() && !outputDir.mkdirs()) {
+            return usage("Cannot create output directory: " + outputDir);
+        }
+
+        ResumeIndex resumeIndex = null;
+        try {
+            if (index) {
+                resumeIndex = ResumeIndex.shared();
+            }
+            Consumer<Record> consumer = outputDir == null ? record -> { } : writer(outputDir, resumeIndex);
+            return new ResumeImporter(System.out, threads).importAll(inputs, consumer) ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Import error: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            System.err.println("Import interrupted");
+            return 1;
+        } finally {
+            if (resumeIndex != null) {
+                resumeIndex.close();
+            }
+        }
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java ResumeBuilder --import [--threads N] [-o outputDir [--index]] <file.rbd | directory>...");
+        return 2;
+    }
+
+    // Writes every record as <source>-<index>.rbd, indexing it when an index is given
+    private static Consumer<Record> writer(File outputDir, ResumeIndex index) {
+        return record -> {
+            String name = record.getSource().getName();
+            if (name.toLowerCase(Locale.ROOT).endsWith(ResumeDataFile.EXTENSION)) {
+                name = name.substring(0, name.length() - ResumeDataFile.EXTENSION.length());
+            }
+            File target = new File(outputDir, String.format("%s-%05d%s", name, record.getIndex(), ResumeDataFile.EXTENSION));
+            try {
+                ResumeDataFile.write(target, record.getResume());
+                if (index != null) {
+                    index.update(target, record.getResume());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // Every resume in the file, in order; used by the GUI to open dumps
+    static List<ResumeSnapshot> readAll(File file) throws IOException {
+        List<ResumeSnapshot> resumes = new ArrayList<>();
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        List<int[]> bounds = new ArrayList<>();
+        int end = scan(data, bounds, true, true);
+        if (end < 0 || end < data.limit()) {
+            throw new IOException("Corrupt .rbd data at offset " + (end < 0 ? -end - 1 : end));
+        }
+        Decoder decoder = new Decoder(data);
+        for (int[] record : bounds) {
+            resumes.add(decoder.decode(record[0], record[1]));
+        }
+        return resumes;
+    }
+
+    // Reads every input, feeding records to the consumer from the worker threads;
+    // returns true if every record was read and consumed
+    boolean importAll(List<File> inputs, Consumer<Record> consumer) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(queueLimit);
+        long start = System.nanoTime();
+        try {
+            for (File input : inputs) {
+                if (input.isDirectory()) {
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(input.toPath(), "*" + ResumeDataFile.EXTENSION)) {
+                        for (Path path : stream) {
+                            importFile(path.toFile(), pool, inFlight, consumer);
+                        }
+                    }
+                } else {
+                    importFile(input, pool, inFlight, consumer);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+        log.printf("Imported %d record(s) from %d file(s), %d failed (%d threads)%n",
+            records.get(), files.get(), failed.get(), threads);
+        log.printf("Throughput:  %.1f MB/s, %.0f records/s (%.1f MB in %.1f ms)%n",
+            bytes.get() / 1048576.0 / seconds, records.get() / seconds, bytes.get() / 1048576.0, seconds * 1000);
+        return failed.get() == 0;
+    }
+
+    private void importFile(File file, ExecutorService pool, Semaphore inFlight, Consumer<Record> consumer)
+            throws IOException, InterruptedException {
+        files.incrementAndGet();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                ByteBuffer data = ByteBuffer.allocate((int) size);
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // Keep reading until the buffer is full
+                }
+                data.flip();
+                importWindow(file, data, 0, 0, true, pool, inFlight, consumer);
+                return;
+            }
+
+            // Dumps beyond one mapping are taken a window at a time; a window ends at its last complete record
+            long offset = 0;
+            int index = 0;
+            while (offset < size) {
+                long length = Math.min(size - offset, MAX_WINDOW_BYTES);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                boolean last = offset + length == size;
+                int[] consumed = importWindow(file, window, offset, index, last, pool, inFlight, consumer);
+                if (consumed == null) {
+                    return;
+                }
+                if (consumed[0] == 0) {
+                    fail(file, "record at offset " + offset + " is larger than " + MAX_WINDOW_BYTES + " bytes");
+                    return;
+                }
+                offset += consumed[0];
+                index += consumed[1];
+            }
+        } catch (IOException e) {
+            fail(file, e.toString());
+        }
+    }
+
+    // Splits one buffer into batches of records and queues them; returns {bytes, records}
+    // consumed, or null when the rest of the file is unreadable
+    private int[] importWindow(File file, ByteBuffer data, long base, int firstIndex, boolean last,
+                               ExecutorService pool, Semaphore inFlight, Consumer<Record> consumer) throws InterruptedException {
+        List<int[]> bounds = new ArrayList<>();
+        int end = scan(data, bounds, last, base == 0);
+
+        int batchStart = 0;
+        for (int i = 0; i < bounds.size(); i++) {
+            boolean full = bounds.get(i)[1] - bounds.get(batchStart)[0] >= BATCH_BYTES;
+            if (full || i == bounds.size() - 1) {
+                submit(pool, inFlight, file, data, bounds.subList(batchStart, i + 1), firstIndex + batchStart, consumer);
+                batchStart = i + 1;
+            }
+        }
+        if (end < 0) {
+            fail(file, "corrupt data at offset " + (base + (-end - 1)));
+            return null;
+        }
+        if (last && end < data.limit()) {
+            fail(file, "incomplete record at offset " + (base + end));
+            return null;
+        }
+        return new int[] {end, bounds.size()};
+    }
+
+    // Blocks while queueLimit batches are pending, which keeps memory flat
+    private void submit(ExecutorService pool, Semaphore inFlight, File file, ByteBuffer data, List<int[]> batch,
+                        int firstIndex, Consumer<Record> consumer) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            pool.execute(() -> {
+                try {
+                    Decoder decoder = new Decoder(data);
+                    for (int i = 0; i < batch.size(); i++) {
+                        int[] record = batch.get(i);
+                        try {
+                            consumer.accept(new Record(file, firstIndex + i, decoder.decode(record[0], record[1])));
+                            records.incrementAndGet();
+                            RECORDS.increment();
+                            bytes.addAndGet(record[1] - record[0]);
+                            BYTES.add(record[1] - record[0]);
+                        } catch (RuntimeException e) {
+                            fail(file, "record " + (firstIndex + i) + ": " + e);
+                        }
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void fail(File file, String message) {
+        failed.incrementAndGet();
+        FAILURES.increment();
+        log.printf("FAIL  %s: %s%n", file.getPath(), message);
+    }
+
+    // Adds {start, end} of every complete record to bounds and returns the end of the last
+    // one. When text is allowed, a buffer not starting with the binary magic is one text
+    // record. Returns -(offset + 1) at a corrupt header or length prefix. When last is
+    // false, a record cut off by the end of the buffer is left for the next window.
+    static int scan(ByteBuffer data, List<int[]> bounds, boolean last, boolean allowText) {
+        int limit = data.limit();
+        if (!startsWithMagic(data, 0)) {
+            if (!last || !allowText) {
+                return -1;
+            }
+            bounds.add(new int[] {0, limit});
+            return limit;
+        }
+        int position = 0;
+        while (position < limit) {
+            int start = position;
+            if (limit - position < ResumeDataFile.MAGIC.length + 5) {
+                return start;
+            }
+            if (!startsWithMagic(data, position) || (data.get(position + 4) & 0xFF) != ResumeDataFile.VERSION) {
+                return -(position + 1);
+            }
+            position += ResumeDataFile.MAGIC.length + 1;
+            int count = data.getInt(position);
+            position += 4;
+            if (count < 0) {
+                return -(start + 1);
+            }
+            boolean complete = true;
+            for (int i = 0; i < count && complete; i++) {
+                if (limit - position < 2) {
+                    complete = false;
+                    break;
+                }
+                position += 2 + (data.getShort(position) & 0xFFFF);
+                if (limit - position < 4) {
+                    complete = false;
+                    break;
+                }
+                int length = data.getInt(position);
+                if (length < 0 || length > ResumeDataFile.MAX_VALUE_BYTES) {
+                    return -(start + 1);
+                }
+                position += 4;
+                if (limit - position < length) {
+                    complete = false;
+                    break;
+                }
+                position += length;
+            }
+            if (!complete) {
+                return start;
+            }
+            bounds.add(new int[] {start, position});
+        }
+        return position;
+    }
+
+    private static boolean startsWithMagic(ByteBuffer data, int position) {
+        if (data.limit() - position < ResumeDataFile.MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < ResumeDataFile.MAGIC.length; i++) {
+            if (data.get(position + i) != ResumeDataFile.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Turns records of one buffer into snapshots; one per thread, reusing its scratch space
+    private static final class Decoder {
+        private final ByteBuffer data;
+        private final ByteBuffer view;
+        private byte[] scratch = new byte[4096];
+
+        Decoder(ByteBuffer data) {
+            this.data = data;
+            this.view = data.duplicate();
+        }
+
+        ResumeSnapshot decode(int start, int end) {
+            return startsWithMagic(data, start) ? decodeBinary(start) : decodeText(start, end);
+        }
+
+        // Bounds were checked by scan()
+        private ResumeSnapshot decodeBinary(int start) {
+            ResumeDataFile.Builder builder = new ResumeDataFile.Builder();
+            int position = start + ResumeDataFile.MAGIC.length + 1;
+            int count = data.getInt(position);
+            position += 4;
+            for (int i = 0; i < count; i++) {
+                int keyLength = data.getShort(position) & 0xFFFF;
+                String key = key(position + 2, keyLength);
+                position += 2 + keyLength;
+                int valueLength = data.getInt(position);
+                position += 4;
+                builder.put(key, string(position, valueLength));
+                position += valueLength;
+            }
+            return builder.build();
+        }
+
+        // key=value lines, \n escaped as backslash-n, lines ending in \n, \r\n or \r
+        private ResumeSnapshot decodeText(int start, int end) {
+            ResumeDataFile.Builder builder = new ResumeDataFile.Builder();
+            int lineStart = start;
+            while (lineStart < end) {
+                int lineEnd = lineStart;
+                int separator = -1;
+                while (lineEnd < end) {
+                    byte b = data.get(lineEnd);
+                    if (b == '\n' || b == '\r') {
+                        break;
+                    }
+                    if (b == '=' && separator < 0) {
+                        separator = lineEnd;
+                    }
+                    lineEnd++;
+                }
+                if (separator >= 0) {
+                    builder.put(key(lineStart, separator - lineStart), unescape(separator + 1, lineEnd));
+                }
+                lineStart = lineEnd + 1;
+                if (lineEnd + 1 < end && data.get(lineEnd) == '\r' && data.get(lineEnd + 1) == '\n') {
+                    lineStart++;
+                }
+            }
+            return builder.build();
+        }
+
+        // The shared String for a known field name, so keys are never allocated
+        private String key(int position, int length) {
+            for (int i = 0; i < KNOWN_KEY_BYTES.length; i++) {
+                byte[] known = KNOWN_KEY_BYTES[i];
+                if (known.length == length && matches(position, known)) {
+                    return KNOWN_KEYS.get(i);
+                }
+            }
+            return string(position, length);
+        }
+
+        private boolean matches(int position, byte[] expected) {
+            for (int i = 0; i < expected.length; i++) {
+                if (data.get(position + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String string(int position, int length) {
+            if (data.hasArray()) {
+                return new String(data.array(), data.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            }
+            ensureScratch(length);
+            view.limit(position + length).position(position);
+            view.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private String unescape(int start, int end) {
+            ensureScratch(end - start);
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                byte b = data.get(i);
+                if (b == '\\' && i + 1 < end && data.get(i + 1) == 'n') {
+                    b = '\n';
+                    i++;
+                }
+                scratch[length++] = b;
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void ensureScratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+        }
+    }
+}
@@ -0,0 +1,1115 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Full-text index over a library of .rbd files.
+//
+// Every field is split into lower-case, accent-folded words; the skills field
+// additionally yields skill tags, split on commas and newlines exactly like
+// Skill.parseAll(). The index lives in ~/.resumebuilder/index (or
+// -Dresumebuilder.index.dir) as two parts:
+//
+//   segment-N.idx  immutable, memory-mapped; sorted term and skill
+//                  dictionaries pointing at ascending doc id postings
+//   index.log      documents indexed or removed since the segment was
+//                  written; replayed into memory on open
+//
+// Saving a file appends one log record, so updates cost a few microseconds
+// of I/O and never rewrite the segment. Once the log passes a threshold it is
+// merged with the segment into segment-N+1 on a background thread. The merge
+// renames the log to index.log.old and works from a copy of the state, so
+// searches and updates carry on meanwhile; changes made during the merge go
+// to a fresh log and are applied to the new segment once it is swapped in.
+// Lookups binary-search the mapped dictionaries and intersect postings, so a
+// query touches a few pages rather than reading the index; newer log entries
+// shadow the segment's copy. Segment documents are numbered in name order, so
+// only the hits actually returned are ever decoded.
+//
+// Segment layout (big-endian, offsets absolute):
+//   header   magic "RBIX", version, docCount, termCount, skillCount,
+//            docsOffset, termsOffset, skillsOffset (8 ints)
+//   docs     docCount x int           offset of the document record
+//   terms    termCount x (int key offset, int postings offset, int count),
+//            sorted by the UTF-8 bytes of the key
+//   skills   skillCount x the same
+//   postings ints
+//   strings  document records (long modified, long size, path, name) and
+//            keys, each string an unsigned short length + UTF-8
+//
+// Log record: int payload length, payload, CRC32 of the payload. A torn last
+// record is dropped, as in the autosave journal. Only the process holding
+// index.lock writes; others open the index read-only.
+final class ResumeIndex {
+    private static final int MAGIC = 0x52424958;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 12;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int MAX_FACETS = 20;
+    // Recent documents are matched one by one, so the log is merged before it grows large
+    private static final long COMPACT_LOG_BYTES = 1024 * 1024;
+    private static final int COMPACT_RECENT_DOCUMENTS = 500;
+
+    private static final byte RECORD_UPDATE = 1;
+    private static final byte RECORD_REMOVE = 2;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.idx");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}+#]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern QUERY_PART = Pattern.compile("(skill:)?(?:\"([^\"]*)\"|(\\S+))");
+
+    private static final RenderMetrics.Histogram QUERY_TIME = RenderMetrics.shared().timer("index.query");
+    private static final RenderMetrics.Histogram UPDATE_TIME = RenderMetrics.shared().timer("index.update");
+
+    private static ResumeIndex shared;
+
+    private static final java.util.concurrent.ExecutorService COMPACTOR =
+        java.util.concurrent.Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-compact");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // A matching file
+    static final class Hit {
+        private final File file;
+        private final String name;
+        private final long modified;
+
+        Hit(File file, String name, long modified) {
+            this.file = file;
+            this.name = name;
+            this.modified = modified;
+        }
+
+        File getFile() { return file; }
+
+        String getName() { return name; }
+
+        long getModified() { return modified; }
+
+        @Override
+        public String toString() {
+            return name + "  (" + file.getName() + ")";
+        }
+    }
+
+    static final class Result {
+        private final List<Hit> hits;
+        private final int total;
+        private final List<Map.Entry<String, Integer>> skills;
+        private final long nanos;
+
+        Result(List<Hit> hits, int total, List<Map.Entry<String, Integer>> skills, long nanos) {
+            this.hits = hits;
+            this.total = total;
+            this.skills = skills;
+            this.nanos = nanos;
+        }
+
+        // At most the requested number of hits, sorted by name
+        List<Hit> getHits() { return hits; }
+
+        // Number of matching files, including those beyond the limit
+        int getTotal() { return total; }
+
+        // Most frequent skill tags among all matches, with their counts
+        List<Map.Entry<String, Integer>> getSkills() { return skills; }
+
+        long getNanos() { return nanos; }
+    }
+
+    // A document indexed since the segment was written
+    private static final class Entry {
+        final String path;
+        final String name;
+        final long modified;
+        final long size;
+        final Set<String> terms;
+        final Set<String> skills;
+
+        Entry(String path, String name, long modified, long size, Set<String> terms, Set<String> skills) {
+            this.path = path;
+            this.name = name;
+            this.modified = modified;
+            this.size = size;
+            this.terms = terms;
+            this.skills = skills;
+        }
+    }
+
+    // Read-only view of a mapped segment file; all reads are absolute, so it is safe to share
+    private static final class Segment {
+        final File file;
+        final ByteBuffer buffer;
+        final int docCount;
+        final int termCount;
+        final int skillCount;
+        final int docsOffset;
+        final int termsOffset;
+        final int skillsOffset;
+
+        Segment(File file) throws IOException {
+            this.file = file;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Corrupt index segment " + file.getName());
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported index segment " + file.getName());
+            }
+            docCount = buffer.getInt(8);
+            termCount = buffer.getInt(12);
+            skillCount = buffer.getInt(16);
+            docsOffset = buffer.getInt(20);
+            termsOffset = buffer.getInt(24);
+            skillsOffset = buffer.getInt(28);
+            long tablesEnd = (long) skillsOffset + (long) skillCount * ENTRY_BYTES;
+            if (docCount < 0 || termCount < 0 || skillCount < 0 || docsOffset != HEADER_BYTES
+                || termsOffset != docsOffset + 4L * docCount
+                || skillsOffset != termsOffset + (long) termCount * ENTRY_BYTES
+                || tablesEnd > buffer.capacity()) {
+                throw new IOException("Corrupt index segment " + file.getName());
+            }
+        }
+
+        String string(int offset) {
+            int length = buffer.getShort(offset) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + 2);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int docRecord(int id) {
+            return buffer.getInt(docsOffset + 4 * id);
+        }
+
+        long modified(int id) {
+            return buffer.getLong(docRecord(id));
+        }
+
+        long size(int id) {
+            return buffer.getLong(docRecord(id) + 8);
+        }
+
+        String path(int id) {
+            return string(docRecord(id) + 16);
+        }
+
+        String name(int id) {
+            int pathOffset = docRecord(id) + 16;
+            return string(pathOffset + 2 + (buffer.getShort(pathOffset) & 0xFFFF));
+        }
+
+        String key(int table, int index) {
+            return string(buffer.getInt(table + index * ENTRY_BYTES));
+        }
+
+        int[] postings(int table, int index) {
+            int entry = table + index * ENTRY_BYTES;
+            int offset = buffer.getInt(entry + 4);
+            int[] ids = new int[buffer.getInt(entry + 8)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = buffer.getInt(offset + 4 * i);
+            }
+            return ids;
+        }
+
+        // Index of the key, or -(insertion point) - 1
+        int find(int table, int count, byte[] key) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(buffer.getInt(table + middle * ENTRY_BYTES), key, false);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        // Compares the stored string with key by unsigned bytes; prefix compares only key.length bytes
+        int compare(int offset, byte[] key, boolean prefix) {
+            int length = buffer.getShort(offset) & 0xFFFF;
+            int common = Math.min(length, key.length);
+            for (int i = 0; i < common; i++) {
+                int difference = (buffer.get(offset + 2 + i) & 0xFF) - (key[i] & 0xFF);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return prefix && length >= key.length ? 0 : length - key.length;
+        }
+    }
+
+    private final File directory;
+    private final File logFile;
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    private Segment segment;
+    private int generation = 0;
+    // Path -> doc id in the segment; ids whose path has been re-indexed or removed since are shadowed
+    private final Map<String, Integer> segmentIds = new HashMap<>();
+    private final BitSet shadowed = new BitSet();
+    private final Map<String, Entry> added = new LinkedHashMap<>();
+
+    private DataOutputStream log;
+    private long logBytes = 0;
+
+    // A merge is building the next segment; changes made meanwhile are kept here
+    // (null marks a removal) and applied once the new segment is swapped in
+    private final File oldLogFile;
+    private boolean compacting = false;
+    private boolean compactionScheduled = false;
+    private final Map<String, Entry> changedDuringCompaction = new LinkedHashMap<>();
+
+    private ResumeIndex(File directory) {
+        this.directory = directory;
+        this.logFile = new File(directory, "index.log");
+        this.oldLogFile = new File(directory, "index.log.old");
+    }
+
+    // ~/.resumebuilder/index, or -Dresumebuilder.index.dir when set
+    static File defaultDirectory() {
+        String configured = System.getProperty("resumebuilder.index.dir");
+        return configured != null && !configured.isEmpty()
+            ? new File(configured)
+            : new File(AutosaveService.homeDirectory(), "index");
+    }
+
+    // The index in the default directory, opened on first use
+    static synchronized ResumeIndex shared() throws IOException {
+        if (shared == null) {
+            shared = open(defaultDirectory());
+        }
+        return shared;
+    }
+
+    static ResumeIndex open(File directory) throws IOException {
+        ResumeIndex index = new ResumeIndex(directory);
+        index.load();
+        return index;
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory.toPath());
+        lockChannel = FileChannel.open(new File(directory, "index.lock").toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+        }
+
+        // The newest segment wins; older ones are left over from a compaction
+        File[] files = directory.listFiles();
+        File newest = null;
+        for (File file : files == null ? new File[0] : files) {
+            Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+            if (matcher.matches() && Integer.parseInt(matcher.group(1)) >= generation) {
+                generation = Integer.parseInt(matcher.group(1));
+                newest = file;
+            }
+        }
+        if (newest != null) {
+            try {
+                mapSegment(new Segment(newest));
+            } catch (IOException e) {
+                System.err.println("Ignoring index segment: " + e.getMessage());
+            }
+        }
+        if (isWritable()) {
+            deleteOldSegments();
+        }
+        // A merge that did not finish leaves the log it started from behind; it is older than index.log
+        replayLog(oldLogFile);
+        logBytes = replayLog(logFile);
+    }
+
+    // False when another process holds the index; updates then stay in memory
+    boolean isWritable() {
+        return lock != null;
+    }
+
+    private void mapSegment(Segment next) {
+        segment = next;
+        segmentIds.clear();
+        shadowed.clear();
+        for (int id = 0; id < next.docCount; id++) {
+            segmentIds.put(next.path(id), id);
+        }
+    }
+
+    private void deleteOldSegments() {
+        File[] files = directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            if (SEGMENT_NAME.matcher(file.getName()).matches() && (segment == null || !file.equals(segment.file))) {
+                // Fails on Windows while another process still maps it; retried on the next open
+                file.delete();
+            }
+        }
+    }
+
+    // Applies every intact record of a log file; returns the bytes they take
+    private long replayLog(File file) throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length < 0 || length > in.available()) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    if (in.readInt() != checksum(payload)) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                applyRecord(payload);
+                valid += 4 + payload.length + 4;
+            }
+        }
+        if (isWritable() && valid < file.length()) {
+            // Drop the torn tail so that new records are not appended after garbage
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return valid;
+    }
+
+    private void applyRecord(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        String path = in.readUTF();
+        if (type == RECORD_REMOVE) {
+            forget(path);
+            return;
+        }
+        String name = in.readUTF();
+        long modified = in.readLong();
+        long size = in.readLong();
+        Set<String> terms = readStrings(in);
+        Set<String> skills = readStrings(in);
+        put(new Entry(path, name, modified, size, terms, skills));
+    }
+
+    private static Set<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<String> strings = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private void put(Entry entry) {
+        forget(entry.path);
+        added.put(entry.path, entry);
+        if (compacting) {
+            changedDuringCompaction.put(entry.path, entry);
+        }
+    }
+
+    private void forget(String path) {
+        Integer id = segmentIds.get(path);
+        if (id != null) {
+            shadowed.set(id);
+        }
+        added.remove(path);
+        if (compacting) {
+            changedDuringCompaction.put(path, null);
+        }
+    }
+
+    // Indexes a file that has just been written with this content; a merge it
+    // makes necessary runs in the background, so this never rewrites the segment
+    void update(File file, ResumeSnapshot resume) throws IOException {
+        updateWithoutCompacting(file, resume);
+        scheduleCompaction();
+    }
+
+    private boolean needsCompaction() {
+        return logBytes > COMPACT_LOG_BYTES || added.size() > COMPACT_RECENT_DOCUMENTS;
+    }
+
+    private synchronized void scheduleCompaction() {
+        if (compacting || compactionScheduled || !isWritable() || !needsCompaction()) {
+            return;
+        }
+        compactionScheduled = true;
+        COMPACTOR.execute(() -> {
+            try {
+                compact(true);
+            } catch (IOException e) {
+                System.err.println("Could not compact index: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    compactionScheduled = false;
+                    notifyAll();
+                }
+            }
+        });
+    }
+
+    private synchronized void updateWithoutCompacting(File file, ResumeSnapshot resume) throws IOException {
+        long start = System.nanoTime();
+        Entry entry = new Entry(key(file), displayName(file, resume), file.lastModified(), file.length(),
+            terms(resume), skills(resume));
+        put(entry);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_UPDATE);
+        out.writeUTF(entry.path);
+        out.writeUTF(entry.name);
+        out.writeLong(entry.modified);
+        out.writeLong(entry.size);
+        writeStrings(out, entry.terms);
+        writeStrings(out, entry.skills);
+        appendRecord(bytes.toByteArray());
+        UPDATE_TIME.recordSince(start);
+    }
+
+    synchronized void remove(File file) throws IOException {
+        removePath(key(file));
+    }
+
+    private void removePath(String path) throws IOException {
+        if (!added.containsKey(path) && !segmentIds.containsKey(path)) {
+            return;
+        }
+        forget(path);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_REMOVE);
+        out.writeUTF(path);
+        appendRecord(bytes.toByteArray());
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private void appendRecord(byte[] payload) throws IOException {
+        if (!isWritable()) {
+            return;
+        }
+        if (log == null) {
+            log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+        }
+        log.writeInt(payload.length);
+        log.write(payload);
+        log.writeInt(checksum(payload));
+        log.flush();
+        logBytes += 4 + payload.length + 4;
+    }
+
+    // Indexes every .rbd file under root that changed since it was last indexed and drops
+    // files that no longer exist; returns the number of files indexed or removed
+    int refresh(File root) throws IOException {
+        String rootPath = key(root);
+        Set<String> seen = new HashSet<>();
+        List<Path> files;
+        try (Stream<Path> walk = root.isDirectory() ? Files.walk(root.toPath()) : Stream.of(root.toPath())) {
+            files = new ArrayList<>();
+            walk.filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(ResumeDataFile.EXTENSION))
+                .filter(Files::isRegularFile)
+                .forEach(files::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int changed = 0;
+        for (Path path : files) {
+            File file = path.toFile();
+            String key = key(file);
+            seen.add(key);
+            if (isCurrent(key, file.lastModified(), file.length())) {
+                continue;
+            }
+            // Files are read outside the lock so that searches keep running meanwhile
+            try {
+                updateWithoutCompacting(file, ResumeDataFile.read(file));
+                changed++;
+            } catch (IOException e) {
+                System.err.println("Could not index " + file + ": " + e.getMessage());
+            }
+        }
+
+        synchronized (this) {
+            List<String> gone = new ArrayList<>();
+            for (String path : indexedPaths()) {
+                if (!seen.contains(path) && isUnder(path, rootPath)) {
+                    gone.add(path);
+                }
+            }
+            for (String path : gone) {
+                removePath(path);
+                changed++;
+            }
+        }
+        compact(true);
+        return changed;
+    }
+
+    private static boolean isUnder(String path, String root) {
+        return path.equals(root) || path.startsWith(root.endsWith(File.separator) ? root : root + File.separator);
+    }
+
+    private synchronized boolean isCurrent(String path, long modified, long size) {
+        Entry entry = added.get(path);
+        if (entry != null) {
+            return entry.modified == modified && entry.size == size;
+        }
+        Integer id = segmentIds.get(path);
+        return id != null && !shadowed.get(id) && segment.modified(id) == modified && segment.size(id) == size;
+    }
+
+    private List<String> indexedPaths() {
+        List<String> paths = new ArrayList<>(added.keySet());
+        for (Map.Entry<String, Integer> entry : segmentIds.entrySet()) {
+            if (!shadowed.get(entry.getValue())) {
+                paths.add(entry.getKey());
+            }
+        }
+        return paths;
+    }
+
+    synchronized int getDocumentCount() {
+        return segmentIds.size() - shadowed.cardinality() + added.size();
+    }
+
+    // Words must all match (a trailing * matches any word with that prefix) and every
+    // skill:tag or skill:"multi word tag" must be one of the resume's skills. An empty
+    // query matches everything. At most limit hits are returned, all of them if limit <= 0.
+    // Skill counts over the matches are only gathered when asked for.
+    synchronized Result search(String query, int limit, boolean withSkills) {
+        long start = System.nanoTime();
+        List<String> words = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        List<String> skills = new ArrayList<>();
+        Matcher matcher = QUERY_PART.matcher(query);
+        while (matcher.find()) {
+            String text = matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+            if (matcher.group(1) != null) {
+                String skill = normalizeSkill(text);
+                if (!skill.isEmpty()) {
+                    skills.add(skill);
+                }
+                continue;
+            }
+            boolean prefix = text.endsWith("*");
+            List<String> tokens = tokenize(prefix ? text.substring(0, text.length() - 1) : text);
+            for (int i = 0; i < tokens.size(); i++) {
+                (prefix && i == tokens.size() - 1 ? prefixes : words).add(tokens.get(i));
+            }
+        }
+
+        // Segment: one bit set per criterion, intersected
+        BitSet matches = new BitSet();
+        if (segment != null) {
+            matches.set(0, segment.docCount);
+            for (String word : words) {
+                matches.and(lookup(segment.termsOffset, segment.termCount, word, false));
+            }
+            for (String prefix : prefixes) {
+                matches.and(lookup(segment.termsOffset, segment.termCount, prefix, true));
+            }
+            for (String skill : skills) {
+                matches.and(lookup(segment.skillsOffset, segment.skillCount, skill, false));
+            }
+            matches.andNot(shadowed);
+        }
+
+        // Recent documents are few; they are checked one by one
+        List<Entry> recent = new ArrayList<>();
+        for (Entry entry : added.values()) {
+            if (entry.terms.containsAll(words) && entry.skills.containsAll(skills) && matchesPrefixes(entry.terms, prefixes)) {
+                recent.add(entry);
+            }
+        }
+
+        // Segment ids are already in name order: decode only as many as can be returned
+        int total = matches.cardinality() + recent.size();
+        List<Hit> hits = new ArrayList<>();
+        for (int id = matches.nextSetBit(0); id >= 0 && (limit <= 0 || hits.size() < limit); id = matches.nextSetBit(id + 1)) {
+            hits.add(new Hit(new File(segment.path(id)), segment.name(id), segment.modified(id)));
+        }
+        for (Entry entry : recent) {
+            hits.add(new Hit(new File(entry.path), entry.name, entry.modified));
+        }
+        hits.sort((a, b) -> compareNames(a.getName(), a.getFile().getPath(), b.getName(), b.getFile().getPath()));
+        if (limit > 0 && hits.size() > limit) {
+            hits = new ArrayList<>(hits.subList(0, limit));
+        }
+
+        List<Map.Entry<String, Integer>> facets = withSkills
+            ? skillFacets(matches, recent) : Collections.<Map.Entry<String, Integer>>emptyList();
+        long nanos = System.nanoTime() - start;
+        QUERY_TIME.record(nanos);
+        return new Result(Collections.unmodifiableList(hits), total, facets, nanos);
+    }
+
+    private static boolean matchesPrefixes(Set<String> terms, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int compareNames(String name, String path, String otherName, String otherPath) {
+        int comparison = String.CASE_INSENSITIVE_ORDER.compare(name, otherName);
+        return comparison != 0 ? comparison : path.compareTo(otherPath);
+    }
+
+    // Documents of the segment holding the key, or every key starting with it
+    private BitSet lookup(int table, int count, String key, boolean prefix) {
+        BitSet ids = new BitSet();
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int index = segment.find(table, count, bytes);
+        if (!prefix) {
+            if (index >= 0) {
+                for (int id : segment.postings(table, index)) {
+                    ids.set(id);
+                }
+            }
+            return ids;
+        }
+        for (int i = index >= 0 ? index : -index - 1; i < count; i++) {
+            if (segment.compare(segment.buffer.getInt(table + i * ENTRY_BYTES), bytes, true) != 0) {
+                break;
+            }
+            for (int id : segment.postings(table, i)) {
+                ids.set(id);
+            }
+        }
+        return ids;
+    }
+
+    private List<Map.Entry<String, Integer>> skillFacets(BitSet matches, List<Entry> recent) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (segment != null && !matches.isEmpty()) {
+            for (int i = 0; i < segment.skillCount; i++) {
+                int count = 0;
+                for (int id : segment.postings(segment.skillsOffset, i)) {
+                    if (matches.get(id)) {
+                        count++;
+                    }
+                }
+                if (count > 0) {
+                    counts.put(segment.key(segment.skillsOffset, i), count);
+                }
+            }
+        }
+        for (Entry entry : recent) {
+            for (String skill : entry.skills) {
+                counts.merge(skill, 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<String, Integer>> facets = new ArrayList<>(counts.entrySet());
+        facets.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return Collections.unmodifiableList(new ArrayList<>(facets.subList(0, Math.min(MAX_FACETS, facets.size()))));
+    }
+
+    // Merges the log into a new segment and starts an empty log
+    void compact() throws IOException {
+        compact(false);
+    }
+
+    // The segment is built and written from a copy of the state without holding
+    // the lock; only taking the copy and swapping in the result are synchronized
+    private void compact(boolean onlyIfNeeded) throws IOException {
+        Segment base;
+        BitSet baseShadowed;
+        List<Entry> baseAdded;
+        int nextGeneration;
+        synchronized (this) {
+            try {
+                while (compacting) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for index compaction");
+            }
+            if (!isWritable() || (onlyIfNeeded && !needsCompaction())) {
+                return;
+            }
+            rotateLog();
+            compacting = true;
+            base = segment;
+            baseShadowed = (BitSet) shadowed.clone();
+            baseAdded = new ArrayList<>(added.values());
+            nextGeneration = generation + 1;
+        }
+
+        Segment merged;
+        try {
+            merged = writeSegment(base, baseShadowed, baseAdded, new File(directory, "segment-" + nextGeneration + ".idx"));
+        } catch (IOException | RuntimeException e) {
+            // The state and both logs are untouched, so the next merge simply starts over
+            synchronized (this) {
+                compacting = false;
+                changedDuringCompaction.clear();
+                notifyAll();
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            Map<String, Entry> changes = new LinkedHashMap<>(changedDuringCompaction);
+            changedDuringCompaction.clear();
+            compacting = false;
+            generation = nextGeneration;
+            mapSegment(merged);
+            added.clear();
+            for (Map.Entry<String, Entry> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    forget(change.getKey());
+                } else {
+                    put(change.getValue());
+                }
+            }
+            notifyAll();
+            // Replaying the old log over the new segment would be harmless, so a crash here loses nothing
+            Files.deleteIfExists(oldLogFile.toPath());
+            deleteOldSegments();
+        }
+    }
+
+    // Moves the log aside for the merge, so that records written meanwhile start a new one
+    private void rotateLog() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        logBytes = 0;
+        if (!logFile.isFile()) {
+            return;
+        }
+        if (oldLogFile.isFile()) {
+            // Left by a merge that failed; the new records follow the ones it already holds
+            try (OutputStream out = new FileOutputStream(oldLogFile, true)) {
+                Files.copy(logFile.toPath(), out);
+            }
+            Files.delete(logFile.toPath());
+        } else {
+            Files.move(logFile.toPath(), oldLogFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static Segment writeSegment(Segment base, BitSet baseShadowed, List<Entry> baseAdded, File next) throws IOException {
+        SegmentWriter writer = new SegmentWriter();
+        if (base != null) {
+            // Ids are provisional; the writer renumbers documents by name and sorts the postings
+            int[] remap = new int[base.docCount];
+            for (int id = 0; id < base.docCount; id++) {
+                remap[id] = baseShadowed.get(id) ? -1
+                    : writer.addDocument(base.path(id), base.name(id), base.modified(id), base.size(id));
+            }
+            for (int i = 0; i < base.termCount; i++) {
+                writer.addPostings(writer.terms, base.key(base.termsOffset, i), base.postings(base.termsOffset, i), remap);
+            }
+            for (int i = 0; i < base.skillCount; i++) {
+                writer.addPostings(writer.skills, base.key(base.skillsOffset, i), base.postings(base.skillsOffset, i), remap);
+            }
+        }
+        for (Entry entry : baseAdded) {
+            int id = writer.addDocument(entry.path, entry.name, entry.modified, entry.size);
+            for (String term : entry.terms) {
+                writer.add(writer.terms, term, id);
+            }
+            for (String skill : entry.skills) {
+                writer.add(writer.skills, skill, id);
+            }
+        }
+
+        File temp = File.createTempFile("segment", ".tmp", next.getParentFile());
+        try {
+            writer.write(temp);
+            Files.move(temp.toPath(), next.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+        return new Segment(next);
+    }
+
+    // Accumulates a segment in memory and writes it in one pass
+    private static final class SegmentWriter {
+        private final List<String[]> documents = new ArrayList<>();
+        private final List<long[]> documentStats = new ArrayList<>();
+        final Map<String, int[]> terms = new HashMap<>();
+        final Map<String, int[]> skills = new HashMap<>();
+
+        int addDocument(String path, String name, long modified, long size) {
+            documents.add(new String[] {path, name});
+            documentStats.add(new long[] {modified, size});
+            return documents.size() - 1;
+        }
+
+        // Postings are kept as {count, id, id, ...} arrays grown on demand
+        void add(Map<String, int[]> target, String key, int id) {
+            int[] postings = target.get(key);
+            if (postings == null) {
+                postings = new int[4];
+            } else if (postings[0] + 1 == postings.length) {
+                postings = Arrays.copyOf(postings, postings.length * 2);
+            }
+            postings[++postings[0]] = id;
+            target.put(key, postings);
+        }
+
+        void addPostings(Map<String, int[]> target, String key, int[] ids, int[] remap) {
+            for (int id : ids) {
+                if (remap[id] >= 0) {
+                    add(target, key, remap[id]);
+                }
+            }
+        }
+
+        void write(File file) throws IOException {
+            List<byte[]> termKeys = sortedKeys(terms);
+            List<byte[]> skillKeys = sortedKeys(skills);
+            long postingCount = 0;
+            for (int[] postings : terms.values()) {
+                postingCount += postings[0];
+            }
+            for (int[] postings : skills.values()) {
+                postingCount += postings[0];
+            }
+
+            // Documents are renumbered in name order; rank maps the ids used so far to the final ones
+            Integer[] order = new Integer[documents.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compareNames(documents.get(a)[1], documents.get(a)[0], documents.get(b)[1], documents.get(b)[0]));
+            int[] rank = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                rank[order[i]] = i;
+            }
+
+            // Strings first, so that every offset is known before anything is written
+            ByteArrayOutputStream pool = new ByteArrayOutputStream();
+            DataOutputStream poolOut = new DataOutputStream(pool);
+            int[] documentPositions = new int[documents.size()];
+            for (int i = 0; i < order.length; i++) {
+                int id = order[i];
+                documentPositions[i] = poolOut.size();
+                poolOut.writeLong(documentStats.get(id)[0]);
+                poolOut.writeLong(documentStats.get(id)[1]);
+                writeString(poolOut, documents.get(id)[0].getBytes(StandardCharsets.UTF_8));
+                writeString(poolOut, documents.get(id)[1].getBytes(StandardCharsets.UTF_8));
+            }
+            int[] termPositions = writeKeys(poolOut, termKeys);
+            int[] skillPositions = writeKeys(poolOut, skillKeys);
+
+            long termsOffset = HEADER_BYTES + 4L * documents.size();
+            long skillsOffset = termsOffset + (long) termKeys.size() * ENTRY_BYTES;
+            long postingsOffset = skillsOffset + (long) skillKeys.size() * ENTRY_BYTES;
+            long poolOffset = postingsOffset + 4 * postingCount;
+            if (poolOffset + pool.size() > Integer.MAX_VALUE) {
+                throw new IOException("Index segment would exceed 2 GB");
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(documents.size());
+                out.writeInt(termKeys.size());
+                out.writeInt(skillKeys.size());
+                out.writeInt(HEADER_BYTES);
+                out.writeInt((int) termsOffset);
+                out.writeInt((int) skillsOffset);
+                for (int position : documentPositions) {
+                    out.writeInt((int) poolOffset + position);
+                }
+                long postingsPosition = postingsOffset;
+                postingsPosition = writeEntries(out, termKeys, terms, termPositions, poolOffset, postingsPosition);
+                writeEntries(out, skillKeys, skills, skillPositions, poolOffset, postingsPosition);
+                writePostings(out, termKeys, terms, rank);
+                writePostings(out, skillKeys, skills, rank);
+                pool.writeTo(out);
+            }
+        }
+
+        private static List<byte[]> sortedKeys(Map<String, int[]> postings) {
+            List<byte[]> keys = new ArrayList<>(postings.size());
+            for (String key : postings.keySet()) {
+                keys.add(key.getBytes(StandardCharsets.UTF_8));
+            }
+            keys.sort(Arrays::compareUnsigned);
+            return keys;
+        }
+
+        private static int[] writeKeys(DataOutputStream pool, List<byte[]> keys) throws IOException {
+            int[] positions = new int[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                positions[i] = pool.size();
+                writeString(pool, keys.get(i));
+            }
+            return positions;
+        }
+
+        private static long writeEntries(DataOutputStream out, List<byte[]> keys, Map<String, int[]> postings,
+                                         int[] positions, long poolOffset, long postingsPosition) throws IOException {
+            for (int i = 0; i < keys.size(); i++) {
+                int count = postings.get(new String(keys.get(i), StandardCharsets.UTF_8))[0];
+                out.writeInt((int) poolOffset + positions[i]);
+                out.writeInt((int) postingsPosition);
+                out.writeInt(count);
+                postingsPosition += 4L * count;
+            }
+            return postingsPosition;
+        }
+
+        private static void writePostings(DataOutputStream out, List<byte[]> keys, Map<String, int[]> postings, int[] rank) throws IOException {
+            for (byte[] key : keys) {
+                int[] ids = postings.get(new String(key, StandardCharsets.UTF_8));
+                int[] ranked = new int[ids[0]];
+                for (int i = 0; i < ranked.length; i++) {
+                    ranked[i] = rank[ids[i + 1]];
+                }
+                Arrays.sort(ranked);
+                for (int id : ranked) {
+                    out.writeInt(id);
+                }
+            }
+        }
+
+        private static void writeString(DataOutputStream out, byte[] bytes) throws IOException {
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Index string too long");
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // Waits for a background merge to finish before releasing the index
+    synchronized void close() {
+        try {
+            while (compacting || compactionScheduled) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            if (lock != null) {
+                lock.release();
+                lockChannel.close();
+                lock = null;
+            }
+        } catch (IOException e) {
+            System.err.println("Could not close index: " + e.getMessage());
+        }
+    }
+
+    // Lower-case words with accents removed, so "Ingénieur" matches "ingenieur"
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : WORD_SEPARATOR.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && token.length() <= MAX_TERM_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> terms(ResumeSnapshot resume) {
+        Set<String> terms = new HashSet<>();
+        for (String field : Resume.FIELD_NAMES) {
+            terms.addAll(tokenize(resume.get(field)));
+        }
+        return terms;
+    }
+
+    // The same tags Skill.parseAll() produces, compared case-insensitively
+    private static Set<String> skills(ResumeSnapshot resume) {
+        Set<String> skills = new HashSet<>();
+        for (Skill skill : Skill.parseAll(resume.get("skills"))) {
+            String tag = normalizeSkill(skill.getName());
+            if (!tag.isEmpty()) {
+                skills.add(tag);
+            }
+        }
+        return skills;
+    }
+
+    private static String normalizeSkill(String skill) {
+        String tag = skill.trim().toLowerCase(Locale.ROOT);
+        return tag.length() > MAX_NAME_LENGTH ? tag.substring(0, MAX_NAME_LENGTH) : tag;
+    }
+
+    private static String displayName(File file, ResumeSnapshot resume) {
+        String name = resume.get("fullName");
+        if (name.isEmpty()) {
+            name = file.getName();
+        }
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+
+    private static String key(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,577 @@
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Lays out a resume as an A4 PDF following its template's LayoutPlan.
+// The renderer keeps no state of its own and never touches Swing: all layout
+// objects are local to a render call, so one instance can be shared by any
+// number of threads rendering resumes concurrently.
+//
+// Output goes to any OutputStream, to a pooled in-memory PdfBuffer or to a
+// byte array; no file is ever created and no dialog is shown, so the
+// renderer can be embedded in a service that streams PDFs straight to its
+// clients. Invalid input is reported with IllegalArgumentException.
+class ResumePdfRenderer {
+
+    // Receives coarse progress updates and is polled for cancellation between layout stages
+    interface ProgressListener {
+        void progress(int percent, String stage);
+
+        boolean isCancelled();
+    }
+
+    // Thrown when the listener asks to stop; no further content is written
+    static class RenderCancelledException extends RuntimeException {
+        RenderCancelledException() {
+            super("PDF rendering cancelled");
+        }
+    }
+
+    // Resumes longer than this (in characters of field text) use the streaming page-at-a-time layout
+    private static final int STREAMING_MIN_CHARS = 20_000;
+    private static final int STREAM_BATCH_ELEMENTS = 64;
+    private static final int MAX_STREAMED_PAGES = 10_000;
+    // iText's default PdfPCell padding, reproduced by the streaming layout
+    private static final float DEFAULT_CELL_PADDING = 2;
+
+    private static final RenderMetrics.Histogram RENDER_TIME = RenderMetrics.shared().timer("pdf.render");
+    private static final RenderMetrics.Histogram LAYOUT_TIME = RenderMetrics.shared().timer("pdf.layout");
+    private static final RenderMetrics.Histogram PDF_SIZE = RenderMetrics.shared().sizes("pdf.size");
+    private static final RenderMetrics.Histogram IMAGE_TIME = RenderMetrics.shared().timer("image.load");
+
+    private final boolean shareStyles;
+    private final PdfCache cache;
+
+    ResumePdfRenderer() {
+        this(true, null);
+    }
+
+    // shareStyles=false allocates fresh fonts per render, for allocation comparisons only.
+    // With a cache, unchanged resumes are served from previously rendered bytes;
+    // documents long enough for the streaming layout are never cached.
+    ResumePdfRenderer(boolean shareStyles, PdfCache cache) {
+        this.shareStyles = shareStyles;
+        this.cache = cache;
+    }
+
+    private static final ProgressListener NO_PROGRESS = new ProgressListener() {
+        public void progress(int percent, String stage) { }
+
+        public boolean isCancelled() { return false; }
+    };
+
+    // Rejects resumes that cannot produce a meaningful PDF
+    static void requireRenderable(Resume resume) {
+        if (resume.getFullName().isEmpty()) {
+            throw new IllegalArgumentException("missing fullName");
+        }
+    }
+
+    void render(Resume resume, OutputStream out) throws DocumentException, IOException {
+        render(resume, out, NO_PROGRESS);
+    }
+
+    // Renders into a pooled buffer; the caller must close it once the bytes have been consumed
+    PdfBuffer renderToBuffer(Resume resume) throws DocumentException, IOException {
+        requireRenderable(resume);
+        PdfBuffer buffer = PdfBuffer.acquire();
+        try {
+            render(resume, buffer.stream());
+            return buffer;
+        } catch (DocumentException | IOException | RuntimeException e) {
+            buffer.close();
+            throw e;
+        }
+    }
+
+    byte[] renderToBytes(Resume resume) throws DocumentException, IOException {
+        try (PdfBuffer buffer = renderToBuffer(resume)) {
+            return buffer.toByteArray();
+        }
+    }
+
+    void render(Resume resume, OutputStream out, ProgressListener listener) throws DocumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            renderCached(resume, out, listener);
+            RENDER_TIME.recordSince(start);
+        } catch (RenderCancelledException e) {
+            RenderMetrics.shared().increment("pdf.cancelled");
+            throw e;
+        } catch (DocumentException | IOException | RuntimeException e) {
+            RENDER_TIME.fail();
+            throw e;
+        }
+    }
+
+    private void renderCached(Resume resume, OutputStream out, ProgressListener listener) throws DocumentException, IOException {
+        // Caching a streamed document would buffer the whole PDF in heap, twice
+        if (cache == null || useStreamingLayout(resume)) {
+            layout(resume, out, listener);
+            return;
+        }
+
+        String fingerprint = PdfCache.fingerprint(resume);
+        byte[] cached = cache.get(fingerprint);
+        if (cached != null) {
+            step(listener, 85, "Écriture du PDF");
+            out.write(cached);
+            listener.progress(100, "Terminé");
+            return;
+        }
+        try (PdfBuffer buffer = PdfBuffer.acquire()) {
+            layout(resume, buffer.stream(), listener);
+            cache.put(fingerprint, buffer.toByteArray());
+            buffer.writeTo(out);
+        }
+    }
+
+    private void layout(Resume resume, OutputStream out, ProgressListener listener) throws DocumentException, IOException {
+        step(listener, 0, "Préparation du document");
+        long start = System.nanoTime();
+
+        // Compiled once per template; a render only binds the resume to it.
+        // Text outside WinAnsi switches to subsetted TrueType fonts.
+        boolean embedded = EmbeddedFonts.shouldEmbed(resume);
+        LayoutPlan plan = shareStyles
+            ? LayoutPlan.forTemplate(resume.getTemplate(), embedded)
+            : LayoutPlan.compile(resume.getTemplate(), embedded);
+        float margin = plan.gap(TemplateSpec.Gap.PAGE_MARGIN);
+        Document document = new Document(PageSize.A4, margin, margin, margin, margin);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+
+        if (useStreamingLayout(resume)) {
+            layoutStreaming(document, writer, resume, plan, listener);
+        } else {
+            layoutTable(document, resume, plan, listener);
+        }
+
+        document.close();
+        LAYOUT_TIME.recordSince(start);
+        PDF_SIZE.record(writer.getCurrentDocumentSize());
+        listener.progress(100, "Terminé");
+    }
+
+    // Long documents are streamed; -Dresumebuilder.pdf.streaming=true/false forces either layout
+    static boolean useStreamingLayout(Resume resume) {
+        String forced = System.getProperty("resumebuilder.pdf.streaming");
+        if (forced != null && !forced.isEmpty()) {
+            return Boolean.parseBoolean(forced);
+        }
+        long chars = 0;
+        for (String field : Resume.FIELD_NAMES) {
+            chars += resume.get(field).length();
+        }
+        return chars > STREAMING_MIN_CHARS;
+    }
+
+    // One table row with a cell per template column. iText has to lay out each
+    // whole column cell before it can split it across pages, which is fine for a
+    // one or two page resume and keeps its exact look.
+    private void layoutTable(Document document, Resume resume, LayoutPlan plan, ProgressListener listener) throws DocumentException {
+        PdfPTable mainTable = new PdfPTable(plan.columnWidths.length);
+        mainTable.setWidthPercentage(100);
+        mainTable.setWidths(plan.columnWidths);
+        mainTable.getDefaultCell().setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
+        mainTable.getDefaultCell().setPadding(0);
+
+        int done = 0;
+        for (LayoutPlan.ColumnPlan column : plan.columns) {
+            PdfPCell cell = new PdfPCell();
+            cell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
+            if (column.paddingLeft >= 0) {
+                cell.setPaddingLeft(column.paddingLeft);
+            }
+            if (column.paddingRight >= 0) {
+                cell.setPaddingRight(column.paddingRight);
+            }
+            cell.setVerticalAlignment(Element.ALIGN_TOP);
+
+            for (TemplateSpec.Section section : column.sections) {
+                step(listener, 10 + 75 * done++ / plan.sectionCount, section.stage);
+                sectionElements(section, column, resume, plan).forEach(cell::addElement);
+            }
+            mainTable.addCell(cell);
+        }
+
+        step(listener, 85, "Écriture du PDF");
+        document.add(mainTable);
+    }
+
+    // Page-at-a-time layout for long documents. Each template column is a
+    // ColumnText fed from a lazy stream of elements, a small batch at a time;
+    // when every column is full the page is finished and written out. Only the
+    // current page and one batch per column are held, so memory stays flat
+    // however long the resume is, and cancellation is checked on every page.
+    private void layoutStreaming(Document document, PdfWriter writer, Resume resume, LayoutPlan plan, ProgressListener listener)
+            throws DocumentException {
+        int count = plan.columns.length;
+        float totalWidth = 0;
+        for (float width : plan.columnWidths) {
+            totalWidth += width;
+        }
+        // Same geometry as the table layout: full-width columns with the plan's (or iText's default) cell padding
+        float[] left = new float[count];
+        float[] right = new float[count];
+        float x = document.left();
+        for (int i = 0; i < count; i++) {
+            LayoutPlan.ColumnPlan column = plan.columns[i];
+            float width = (document.right() - document.left()) * plan.columnWidths[i] / totalWidth;
+            left[i] = x + (column.paddingLeft >= 0 ? column.paddingLeft : DEFAULT_CELL_PADDING);
+            right[i] = x + width - (column.paddingRight >= 0 ? column.paddingRight : DEFAULT_CELL_PADDING);
+            x += width;
+        }
+        float top = document.top() - DEFAULT_CELL_PADDING;
+        float bottom = document.bottom() + DEFAULT_CELL_PADDING;
+
+        ColumnText[] texts = new ColumnText[count];
+        ColumnFeed[] feeds = new ColumnFeed[count];
+        boolean[] finished = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            LayoutPlan.ColumnPlan column = plan.columns[i];
+            texts[i] = new ColumnText(writer.getDirectContent());
+            feeds[i] = new ColumnFeed(column.sections, section -> sectionElements(section, column, resume, plan));
+        }
+
+        for (int page = 1; ; page++) {
+            int started = 0;
+            for (ColumnFeed feed : feeds) {
+                started += feed.sectionsStarted;
+            }
+            step(listener, 10 + 75 * started / Math.max(1, plan.sectionCount), "Mise en page, page " + page);
+
+            boolean overflow = false;
+            for (int i = 0; i < count; i++) {
+                if (!finished[i]) {
+                    texts[i].setSimpleColumn(left[i], bottom, right[i], top);
+                    if (fillColumn(texts[i], feeds[i], top)) {
+                        overflow = true;
+                    } else {
+                        finished[i] = true;
+                    }
+                }
+            }
+            if (!overflow) {
+                return;
+            }
+            if (page >= MAX_STREAMED_PAGES) {
+                throw new DocumentException("Document exceeds " + MAX_STREAMED_PAGES + " pages");
+            }
+            document.newPage();
+        }
+    }
+
+    // Lays out elements until the column is full (true) or its feed is exhausted (false)
+    private static boolean fillColumn(ColumnText text, ColumnFeed feed, float top) throws DocumentException {
+        boolean[] batchStart = new boolean[1];
+        Consumer<Element> sink = element -> {
+            // ColumnText drops the spacing before the first element of every go(), which is
+            // only right at the top of a page; below that, apply it by moving the line down
+            if (batchStart[0] && element instanceof Paragraph && text.getYLine() < top) {
+                Paragraph paragraph = (Paragraph) element;
+                text.setYLine(text.getYLine() - paragraph.getSpacingBefore());
+                paragraph.setSpacingBefore(0);
+            }
+            batchStart[0] = false;
+            text.addElement(element);
+        };
+        while (true) {
+            if (ColumnText.hasMoreText(text.go())) {
+                return true;
+            }
+            batchStart[0] = true;
+            if (!feed.next(sink, STREAM_BATCH_ELEMENTS)) {
+                return false;
+            }
+        }
+    }
+
+    // Pulls the elements of a column's sections one batch at a time.
+    // A batch never ends between a paragraph and a following table or image:
+    // ColumnText places the first element of a go() call without the descent
+    // of the line above it, which fillColumn corrects for paragraphs only.
+    private static final class ColumnFeed {
+        private final Iterator<TemplateSpec.Section> sections;
+        private final Function<TemplateSpec.Section, Stream<Element>> elements;
+        private Iterator<Element> current = Collections.emptyIterator();
+        private Element lookahead;
+        private boolean lastWasParagraph = false;
+        int sectionsStarted = 0;
+
+        ColumnFeed(java.util.List<TemplateSpec.Section> sections, Function<TemplateSpec.Section, Stream<Element>> elements) {
+            this.sections = sections.iterator();
+            this.elements = elements;
+        }
+
+        // Hands at least max elements (fewer at the end) to the sink; false when there were none left
+        boolean next(Consumer<Element> sink, int max) {
+            int added = 0;
+            while (peek() != null) {
+                if (added >= max && (lookahead instanceof Paragraph || !lastWasParagraph)) {
+                    break;
+                }
+                sink.accept(lookahead);
+                lastWasParagraph = lookahead instanceof Paragraph;
+                lookahead = null;
+                added++;
+            }
+            return added > 0;
+        }
+
+        private Element peek() {
+            while (lookahead == null) {
+                if (current.hasNext()) {
+                    lookahead = current.next();
+                } else if (sections.hasNext()) {
+                    current = elements.apply(sections.next()).iterator();
+                    sectionsStarted++;
+                } else {
+                    return null;
+                }
+            }
+            return lookahead;
+        }
+    }
+
+    private static void step(ProgressListener listener, int percent, String stage) {
+        if (listener.isCancelled()) {
+            throw new RenderCancelledException();
+        }
+        listener.progress(percent, stage);
+    }
+
+    // Elements of one section, created lazily entry by entry so that long sections can be streamed
+    private Stream<Element> sectionElements(TemplateSpec.Section section, LayoutPlan.ColumnPlan column, Resume resume,
+                                            LayoutPlan plan) {
+        PdfStyles styles = plan.styles;
+        switch (section) {
+            case HEADER:
+                // Name and title
+                Paragraph namePara = new Paragraph(resume.getFullName(), styles.nameFont);
+                namePara.setSpacingAfter(plan.gap(TemplateSpec.Gap.NAME_AFTER));
+                if (resume.getTitle() == null) {
+                    return Stream.of(namePara);
+                }
+                Paragraph titlePara = new Paragraph(resume.getTitle(), styles.titleFont);
+                titlePara.setSpacingAfter(plan.gap(TemplateSpec.Gap.GROUP_AFTER));
+                return Stream.of(namePara, titlePara);
+
+            case EXPERIENCE:
+                return list(section, column, plan, resume.getExperience(), entry -> experienceEntry(entry, plan));
+
+            case EDUCATION:
+                return list(section, column, plan, resume.getEducation(), entry -> educationEntry(entry, plan));
+
+            case PROJECTS:
+                String projects = resume.get("projects");
+                if (projects.isEmpty()) {
+                    return Stream.empty();
+                }
+                Paragraph projectsPara = new Paragraph(projects, styles.normalFont);
+                projectsPara.setSpacingAfter(plan.gap(TemplateSpec.Gap.BLOCK_AFTER));
+                return Stream.concat(sectionHeader(section, column, plan), Stream.of(projectsPara));
+
+            case PHOTO:
+                return profileImage(resume.getProfileImagePath());
+
+            case CONTACT:
+                return contact(resume, plan);
+
+            case SKILLS:
+                if (resume.getSkills().isEmpty()) {
+                    return Stream.empty();
+                }
+                Paragraph spacing = new Paragraph(" ", styles.normalFont);
+                spacing.setSpacingAfter(plan.gap(TemplateSpec.Gap.BLOCK_AFTER));
+                return Stream.concat(
+                    list(section, column, plan, resume.getSkills(), skill -> Stream.of(levelRow(skill.getName(), skill.getLevel(), plan))),
+                    Stream.of(spacing));
+
+            case LANGUAGES:
+                // Shown when a LinkedIn profile is given
+                if (resume.get("linkedin").isEmpty()) {
+                    return Stream.empty();
+                }
+                return Stream.concat(sectionHeader(section, column, plan),
+                    Stream.of(levelRow("English", "Native", plan), levelRow("French", "Intermediate", plan)));
+
+            case CERTIFICATIONS:
+                return list(section, column, plan, resume.getCertifications(), cert -> certification(cert, plan));
+
+            default:
+                return Stream.empty();
+        }
+    }
+
+    // Header followed by each entry's elements; nothing at all when there are no entries
+    private <T> Stream<Element> list(TemplateSpec.Section section, LayoutPlan.ColumnPlan column, LayoutPlan plan,
+                                     java.util.List<T> entries, Function<T, Stream<Element>> entryElements) {
+        if (entries.isEmpty()) {
+            return Stream.empty();
+        }
+        return Stream.concat(sectionHeader(section, column, plan), entries.stream().flatMap(entryElements));
+    }
+
+    // Section title followed by the template's rule pattern
+    private Stream<Element> sectionHeader(TemplateSpec.Section section, LayoutPlan.ColumnPlan column, LayoutPlan plan) {
+        Paragraph header = new Paragraph(plan.title(section), plan.styles.sectionHeaderFont);
+        header.setSpacingBefore(plan.gap(TemplateSpec.Gap.HEADER_BEFORE));
+        header.setSpacingAfter(plan.gap(TemplateSpec.Gap.HEADER_AFTER));
+
+        Paragraph linePattern = new Paragraph(column.rule, plan.styles.sectionRuleFont);
+        linePattern.setSpacingAfter(plan.gap(TemplateSpec.Gap.RULE_AFTER));
+        return Stream.of(header, linePattern);
+    }
+
+    private Stream<Element> profileImage(String profileImagePath) {
+        if (profileImagePath == null) {
+            return Stream.empty();
+        }
+        long start = System.nanoTime();
+        try {
+            // Decoded and downsampled once, then served from the cache
+            com.itextpdf.text.Image profileImage = ProfileImageCache.shared().getImage(profileImagePath);
+            profileImage.scaleToFit(ProfileImageCache.PRINT_SIZE_PT, ProfileImageCache.PRINT_SIZE_PT);
+            profileImage.setAlignment(Element.ALIGN_CENTER);
+            IMAGE_TIME.recordSince(start);
+            return Stream.of(profileImage, new Paragraph("\n")); // Add some spacing
+        } catch (Exception e) {
+            IMAGE_TIME.fail();
+            System.err.println("Error adding profile image: " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    private Stream<Element> contact(Resume resume, LayoutPlan plan) {
+        java.util.List<Element> elements = new ArrayList<>();
+        for (String value : new String[] {resume.get("phone"), resume.get("email"), resume.get("portfolio")}) {
+            if (!value.isEmpty()) {
+                Paragraph para = new Paragraph(value, plan.styles.contactFont);
+                para.setSpacingAfter(plan.gap(TemplateSpec.Gap.ITEM_AFTER));
+                elements.add(para);
+            }
+        }
+        String location = resume.get("location");
+        if (!location.isEmpty()) {
+            Paragraph locationPara = new Paragraph(location, plan.styles.contactFont);
+            locationPara.setSpacingAfter(plan.gap(TemplateSpec.Gap.GROUP_AFTER));
+            elements.add(locationPara);
+        }
+        return elements.stream();
+    }
+
+    // One experience entry: title, company and date, bullets, then spacing
+    private Stream<Element> experienceEntry(ExperienceEntry entry, LayoutPlan plan) {
+        PdfStyles styles = plan.styles;
+        java.util.List<Element> heading = new ArrayList<>(3);
+
+        // Job title
+        Paragraph jobTitle = new Paragraph(entry.getTitle(), styles.jobTitleFont);
+        jobTitle.setSpacingAfter(plan.gap(TemplateSpec.Gap.LINE_AFTER));
+        heading.add(jobTitle);
+
+        // Company and date
+        if (entry.getCompany() != null) {
+            Paragraph company = new Paragraph(entry.getCompany(), styles.companyFont);
+            if (entry.getDates() != null) {
+                company.setSpacingAfter(plan.gap(TemplateSpec.Gap.LINE_AFTER));
+                heading.add(company);
+
+                Paragraph date = new Paragraph(entry.getDates(), styles.dateFont);
+                date.setSpacingAfter(plan.gap(TemplateSpec.Gap.ENTRY_HEADER_AFTER));
+                heading.add(date);
+            } else {
+                company.setSpacingAfter(plan.gap(TemplateSpec.Gap.ENTRY_HEADER_AFTER));
+                heading.add(company);
+            }
+        }
+
+        // Description (bullet points)
+        Stream<Element> bullets = entry.getBullets().stream().map(line -> {
+            Paragraph bullet = new Paragraph("• " + line, styles.normalFont);
+            bullet.setSpacingAfter(plan.gap(TemplateSpec.Gap.ITEM_AFTER));
+            bullet.setIndentationLeft(plan.gap(TemplateSpec.Gap.BULLET_INDENT));
+            return bullet;
+        });
+
+        // Spacing between entries
+        Paragraph spacing = new Paragraph(" ", styles.normalFont);
+        spacing.setSpacingAfter(plan.gap(TemplateSpec.Gap.ENTRY_AFTER));
+
+        return Stream.concat(Stream.concat(heading.stream(), bullets), Stream.of(spacing));
+    }
+
+    // One education entry: degree, school, date and details
+    private Stream<Element> educationEntry(EducationEntry entry, LayoutPlan plan) {
+        PdfStyles styles = plan.styles;
+        java.util.List<Element> elements = new ArrayList<>(4);
+
+        // Degree
+        Paragraph degree = new Paragraph(entry.getDegree(), styles.jobTitleFont);
+        degree.setSpacingAfter(plan.gap(TemplateSpec.Gap.ITEM_AFTER));
+        elements.add(degree);
+
+        // School
+        if (entry.getSchool() != null) {
+            Paragraph school = new Paragraph(entry.getSchool(), styles.companyFont);
+            school.setSpacingAfter(plan.gap(TemplateSpec.Gap.LINE_AFTER));
+            elements.add(school);
+        }
+
+        // Date
+        if (entry.getDate() != null) {
+            Paragraph date = new Paragraph(entry.getDate(), styles.dateFont);
+            date.setSpacingAfter(plan.gap(TemplateSpec.Gap.LINE_AFTER));
+            elements.add(date);
+        }
+
+        // Additional info
+        Paragraph additional = new Paragraph(entry.getDetails() != null ? entry.getDetails() : " ", styles.normalFont);
+        additional.setSpacingAfter(plan.gap(TemplateSpec.Gap.GROUP_AFTER));
+        elements.add(additional);
+        return elements.stream();
+    }
+
+    // Name on the left, level right-aligned
+    private PdfPTable levelRow(String name, String level, LayoutPlan plan) {
+        PdfPTable rowTable = new PdfPTable(new float[]{70f, 30f});
+        rowTable.setWidthPercentage(100);
+        rowTable.getDefaultCell().setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
+        rowTable.getDefaultCell().setPadding(1);
+
+        PdfPCell nameCell = new PdfPCell(new Phrase(name, plan.styles.normalFont));
+        nameCell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
+        nameCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+
+        PdfPCell levelCell = new PdfPCell(new Phrase(level, plan.styles.skillLevelFont));
+        levelCell.setBorder(com.itextpdf.text.Rectangle.NO_BORDER);
+        levelCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+
+        rowTable.addCell(nameCell);
+        rowTable.addCell(levelCell);
+
+        rowTable.setSpacingAfter(plan.gap(TemplateSpec.Gap.ROW_AFTER));
+        return rowTable;
+    }
+
+    private Stream<Element> certification(Certification cert, LayoutPlan plan) {
+        PdfStyles styles = plan.styles;
+        Paragraph certName = new Paragraph(cert.getName(), styles.normalFont);
+        if (cert.getDetail() == null) {
+            certName.setSpacingAfter(plan.gap(TemplateSpec.Gap.LIST_ENTRY_AFTER));
+            return Stream.of(certName);
+        }
+        certName.setSpacingAfter(plan.gap(TemplateSpec.Gap.LINE_AFTER));
+
+        Paragraph certDate = new Paragraph(cert.getDetail(), styles.dateFont);
+        certDate.setSpacingAfter(plan.gap(TemplateSpec.Gap.LIST_ENTRY_AFTER));
+        return Stream.of(certName, certDate);
+    }
+}
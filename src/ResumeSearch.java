@@ -0,0 +1,100 @@
+import java.io.*;
+import java.util.*;
+
+// Command-line access to the resume index.
+//
+//   java ResumeBuilder --search [--index dir] [--add file.rbd|directory]... [--limit N] [--skills] [--compact] [query...]
+//
+// --add indexes new and changed .rbd files under each path (and forgets
+// deleted ones) before the query runs; --compact merges the update log into
+// the mapped segment. The query uses the same syntax as the search window:
+// words must all match, word* matches a prefix and skill:tag or
+// skill:"multi word tag" filters on the skills list. --skills also prints the
+// most common skills among the matches.
+class ResumeSearch {
+    private ResumeSearch() {
+    }
+
+    static int run(String[] args) {
+        File directory = ResumeIndex.defaultDirectory();
+        List<File> additions = new ArrayList<>();
+        int limit = 20;
+        boolean showSkills = false;
+        boolean compact = false;
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--index") && i + 1 < args.length) {
+                directory = new File(args[++i]);
+            } else if (args[i].equals("--add") && i + 1 < args.length) {
+                additions.add(new File(args[++i]));
+            } else if (args[i].equals("--limit") && i + 1 < args.length) {
+                try {
+                    limit = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    return usage("Invalid value for --limit: " + args[i]);
+                }
+            } else if (args[i].equals("--skills")) {
+                showSkills = true;
+            } else if (args[i].equals("--compact")) {
+                compact = true;
+            } else if (args[i].startsWith("--")) {
+                return usage("Unknown option: " + args[i]);
+            } else {
+                query.append(query.length() > 0 ? " " : "").append(args[i]);
+            }
+        }
+        if (query.length() == 0 && additions.isEmpty() && !compact && !showSkills) {
+            return usage("No query given");
+        }
+
+        ResumeIndex index;
+        try {
+            index = ResumeIndex.open(directory);
+        } catch (IOException e) {
+            System.err.println("Could not open index " + directory + ": " + e.getMessage());
+            return 1;
+        }
+        try {
+            if (!index.isWritable() && (!additions.isEmpty() || compact)) {
+                System.err.println("Index is in use by another process; changes will not be saved");
+            }
+            for (File path : additions) {
+                long start = System.nanoTime();
+                int changed = index.refresh(path);
+                System.out.printf("Indexed %s: %d file(s) updated in %.1f ms%n", path, changed, (System.nanoTime() - start) / 1e6);
+            }
+            if (compact) {
+                index.compact();
+            }
+            if (query.length() == 0 && !showSkills) {
+                System.out.printf("%d file(s) in the index%n", index.getDocumentCount());
+                return 0;
+            }
+
+            ResumeIndex.Result result = index.search(query.toString(), limit, showSkills);
+            for (ResumeIndex.Hit hit : result.getHits()) {
+                System.out.printf("%-32s %s%n", hit.getName(), hit.getFile().getPath());
+            }
+            System.out.printf("%d of %d match(es) in %.3f ms (%d file(s) indexed)%n",
+                result.getHits().size(), result.getTotal(), result.getNanos() / 1e6, index.getDocumentCount());
+            if (showSkills) {
+                System.out.println("Skills:");
+                for (Map.Entry<String, Integer> skill : result.getSkills()) {
+                    System.out.printf("  %-30s %d%n", skill.getKey(), skill.getValue());
+                }
+            }
+            return result.getTotal() > 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Index error: " + e.getMessage());
+            return 1;
+        } finally {
+            index.close();
+        }
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java ResumeBuilder --search [--index dir] [--add file.rbd|directory]... [--limit N] [--skills] [--compact] [query...]");
+        return 2;
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.*;
+
+// Immutable copy of everything the PDF layout reads.
+// Taken on the Event Dispatch Thread so that rendering can run on any other thread.
+final class ResumeSnapshot {
+    private final Map<String, String> values;
+    private final String profileImagePath;
+    private final String template;
+
+    ResumeSnapshot(Map<String, String> values, String profileImagePath, String template) {
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+        this.profileImagePath = profileImagePath;
+        this.template = template;
+    }
+
+    // Trimmed field value, or "" when the field is missing
+    String get(String fieldName) {
+        String value = values.get(fieldName);
+        return value == null ? "" : value.trim();
+    }
+
+    // Raw, untrimmed field values
+    Map<String, String> getValues() {
+        return values;
+    }
+
+    String getProfileImagePath() {
+        return profileImagePath;
+    }
+
+    String getTemplate() {
+        return template;
+    }
+}
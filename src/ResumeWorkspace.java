@@ -0,0 +1,266 @@
+import java.io.*;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.swing.AbstractListModel;
+
+// The resumes open in the editor, one session per document.
+//
+// Only the active session lives in the editor's Swing documents and parsed
+// model. Every other session is parked as its .rbd encoding compressed with
+// Deflater, typically a few KB, and is inflated back into the editor only when
+// it becomes active again. Heap therefore grows with the one open editor, not
+// with the number of open documents.
+//
+// Doubles as the list model of the document selector. Must be used on the
+// Event Dispatch Thread.
+class ResumeWorkspace extends AbstractListModel<ResumeWorkspace.Session> {
+    static final class Session {
+        private final int number;
+        private File file;
+        // Id of the resume inside file when file is an archive, else null
+        private String archiveId;
+        private String fullName = "";
+        private boolean modified = false;
+        // Compressed .rbd bytes while parked; null while the session is active
+        private byte[] packed;
+
+        private Session(int number, File file, String archiveId) {
+            this.number = number;
+            this.file = file;
+            this.archiveId = archiveId;
+        }
+
+        // Unique within this run of the application
+        int getNumber() {
+            return number;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        String getArchiveId() {
+            return archiveId;
+        }
+
+        boolean isModified() {
+            return modified;
+        }
+
+        boolean isActive() {
+            return packed == null;
+        }
+
+        int getPackedBytes() {
+            return packed == null ? 0 : packed.length;
+        }
+
+        // Label shown in the selector: the candidate's name, else the archive id or file name
+        @Override
+        public String toString() {
+            String label;
+            if (!fullName.isEmpty()) {
+                label = fullName;
+            } else if (archiveId != null) {
+                label = archiveId;
+            } else if (file != null) {
+                label = file.getName();
+            } else {
+                label = "Sans titre " + number;
+            }
+            return modified ? "• " + label : label;
+        }
+    }
+
+    private final java.util.List<Session> sessions = new ArrayList<>();
+    private Session active;
+    private int nextNumber = 1;
+
+    // Adds a parked session holding this resume
+    Session open(File file, ResumeSnapshot resume) {
+        return open(file, null, resume);
+    }
+
+    // Adds a parked session holding the resume stored under archiveId in an archive
+    Session open(File file, String archiveId, ResumeSnapshot resume) {
+        Session session = new Session(nextNumber++, file, archiveId);
+        session.fullName = resume.get("fullName");
+        session.packed = pack(resume);
+        sessions.add(session);
+        fireIntervalAdded(this, sessions.size() - 1, sessions.size() - 1);
+        return session;
+    }
+
+    // Adds the session the editor currently shows
+    Session openActive(File file, String fullName) {
+        Session session = new Session(nextNumber++, file, null);
+        session.fullName = fullName;
+        sessions.add(session);
+        active = session;
+        fireIntervalAdded(this, sessions.size() - 1, sessions.size() - 1);
+        return session;
+    }
+
+    // Session already holding this file, or null
+    Session find(File file) {
+        return find(file, null);
+    }
+
+    // Session already holding this archive entry (or plain file when archiveId is null), or null
+    Session find(File file, String archiveId) {
+        for (Session session : sessions) {
+            if (session.file != null && Objects.equals(session.archiveId, archiveId) && sameFile(session.file, file)) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameFile(File a, File b) {
+        try {
+            return a.getCanonicalFile().equals(b.getCanonicalFile());
+        } catch (IOException e) {
+            return a.getAbsoluteFile().equals(b.getAbsoluteFile());
+        }
+    }
+
+    Session getActive() {
+        return active;
+    }
+
+    // Parks the active session with the editor's current content and returns the
+    // next session's content, which the caller must load into the editor
+    ResumeSnapshot activate(Session next, ResumeSnapshot current) {
+        if (active != null && active != next) {
+            active.fullName = current.get("fullName");
+            active.packed = pack(current);
+            changed(active);
+        }
+        ResumeSnapshot resume = next.packed == null ? current : unpack(next.packed);
+        next.packed = null;
+        active = next;
+        return resume;
+    }
+
+    // Removes a parked session, or the active one once the editor has moved away from it
+    void close(Session session) {
+        int index = sessions.indexOf(session);
+        if (index < 0) {
+            return;
+        }
+        sessions.remove(index);
+        if (session == active) {
+            active = null;
+        }
+        fireIntervalRemoved(this, index, index);
+    }
+
+    // Neighbour to show when this session is closed, or null if it is the last one
+    Session neighbour(Session session) {
+        int index = sessions.indexOf(session);
+        if (sessions.size() < 2 || index < 0) {
+            return null;
+        }
+        return sessions.get(index + 1 < sessions.size() ? index + 1 : index - 1);
+    }
+
+    void setModified(Session session, boolean modified) {
+        if (session.modified != modified) {
+            session.modified = modified;
+            changed(session);
+        }
+    }
+
+    void setFile(Session session, File file) {
+        setFile(session, file, null);
+    }
+
+    void setFile(Session session, File file, String archiveId) {
+        session.file = file;
+        session.archiveId = archiveId;
+        changed(session);
+    }
+
+    void setFullName(Session session, String fullName) {
+        if (!session.fullName.equals(fullName)) {
+            session.fullName = fullName;
+            changed(session);
+        }
+    }
+
+    boolean hasModified() {
+        for (Session session : sessions) {
+            if (session.modified) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Compressed bytes held by the parked sessions
+    long getPackedBytes() {
+        long total = 0;
+        for (Session session : sessions) {
+            total += session.getPackedBytes();
+        }
+        return total;
+    }
+
+    private void changed(Session session) {
+        int index = sessions.indexOf(session);
+        if (index >= 0) {
+            fireContentsChanged(this, index, index);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return sessions.size();
+    }
+
+    @Override
+    public Session getElementAt(int index) {
+        return sessions.get(index);
+    }
+
+    static byte[] pack(ResumeSnapshot resume) {
+        byte[] data = ResumeDataFile.toBytes(resume);
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static ResumeSnapshot unpack(byte[] packed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(packed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated workspace session");
+                }
+                out.write(buffer, 0, count);
+            }
+            return ResumeDataFile.read(new ByteArrayInputStream(out.toByteArray()));
+        } catch (DataFormatException | IOException e) {
+            // Written by pack() in this process, so this is a bug rather than bad input
+            throw new IllegalStateException("Corrupt workspace session", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.swing.*;
+
+// Search window contents: a query field searched as you type, the matching
+// files and the most common skills among them. Clicking a skill narrows the
+// query to it; double-clicking a file (or pressing Enter) hands it to the
+// opener. Queries run on the Event Dispatch Thread since they take
+// microseconds; indexing a folder runs in the background.
+class SearchPanel extends JPanel {
+    private static final int MAX_RESULTS = 200;
+
+    private final ResumeIndex index;
+    private final Consumer<File> opener;
+    private final JTextField queryField = new JTextField(30);
+    private final DefaultListModel<ResumeIndex.Hit> results = new DefaultListModel<>();
+    private final DefaultListModel<Map.Entry<String, Integer>> skills = new DefaultListModel<>();
+    private final JList<ResumeIndex.Hit> resultList = new JList<>(results);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JButton indexButton = new JButton("Indexer un dossier…");
+
+    SearchPanel(ResumeIndex index, Consumer<File> opener, java.awt.Font font) {
+        super(new BorderLayout(8, 8));
+        this.index = index;
+        this.opener = opener;
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        queryField.setFont(font);
+        queryField.setToolTipText("Tous les mots doivent correspondre ; java* cherche un préfixe, skill:\"spring boot\" filtre par compétence");
+        queryField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
+        });
+        queryField.addActionListener(e -> openSelected());
+        indexButton.addActionListener(e -> indexFolder());
+
+        JPanel top = new JPanel(new BorderLayout(8, 0));
+        top.add(new JLabel("Rechercher :"), BorderLayout.WEST);
+        top.add(queryField, BorderLayout.CENTER);
+        top.add(indexButton, BorderLayout.EAST);
+
+        resultList.setFont(font);
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    openSelected();
+                }
+            }
+        });
+        resultList.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "open");
+        resultList.getActionMap().put("open", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                openSelected();
+            }
+        });
+
+        JList<Map.Entry<String, Integer>> skillList = new JList<>(skills);
+        skillList.setFont(font);
+        skillList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean selected, boolean focused) {
+                Map.Entry<?, ?> skill = (Map.Entry<?, ?>) value;
+                return super.getListCellRendererComponent(list, skill.getKey() + " (" + skill.getValue() + ")", index, selected, focused);
+            }
+        });
+        skillList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Map.Entry<String, Integer> skill = skillList.getSelectedValue();
+                if (skill != null) {
+                    narrowTo(skill.getKey());
+                }
+            }
+        });
+        JScrollPane skillScroll = new JScrollPane(skillList);
+        skillScroll.setBorder(BorderFactory.createTitledBorder("Compétences"));
+        skillScroll.setPreferredSize(new Dimension(200, 0));
+
+        statusLabel.setFont(font.deriveFont(10f));
+        statusLabel.setForeground(Color.GRAY);
+
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(resultList), BorderLayout.CENTER);
+        add(skillScroll, BorderLayout.EAST);
+        add(statusLabel, BorderLayout.SOUTH);
+        search();
+    }
+
+    JTextField getQueryField() {
+        return queryField;
+    }
+
+    private void search() {
+        ResumeIndex.Result result = index.search(queryField.getText(), MAX_RESULTS, true);
+        results.clear();
+        for (ResumeIndex.Hit hit : result.getHits()) {
+            results.addElement(hit);
+        }
+        skills.clear();
+        for (Map.Entry<String, Integer> skill : result.getSkills()) {
+            skills.addElement(skill);
+        }
+        if (!results.isEmpty()) {
+            resultList.setSelectedIndex(0);
+        }
+        statusLabel.setText(String.format("%d résultat(s) sur %d CV indexés, en %.2f ms%s",
+            result.getTotal(), index.getDocumentCount(), result.getNanos() / 1e6,
+            result.getTotal() > MAX_RESULTS ? " (" + MAX_RESULTS + " premiers affichés)" : ""));
+    }
+
+    private void narrowTo(String skill) {
+        String filter = skill.contains(" ") ? "skill:\"" + skill + "\"" : "skill:" + skill;
+        String query = queryField.getText().trim();
+        if (!query.contains(filter)) {
+            queryField.setText(query.isEmpty() ? filter : query + " " + filter);
+        }
+    }
+
+    private void openSelected() {
+        ResumeIndex.Hit hit = resultList.getSelectedValue();
+        if (hit != null) {
+            opener.accept(hit.getFile());
+        }
+    }
+
+    // Adds new and changed .rbd files under a folder; unchanged files are skipped
+    private void indexFolder() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Indexer un dossier de CV");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File folder = chooser.getSelectedFile();
+        indexButton.setEnabled(false);
+        statusLabel.setText("Indexation de " + folder.getName() + "…");
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return index.refresh(folder);
+            }
+
+            @Override
+            protected void done() {
+                indexButton.setEnabled(true);
+                try {
+                    int changed = get();
+                    search();
+                    statusLabel.setText(statusLabel.getText() + " — " + changed + " fichier(s) mis à jour");
+                } catch (Exception e) {
+                    Throwable cause = e instanceof java.util.concurrent.ExecutionException ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(SearchPanel.this,
+                        "Erreur lors de l'indexation: " + cause.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.*;
+
+// A single skill; the source lists skills separated by commas or newlines.
+final class Skill {
+    static final String DEFAULT_LEVEL = "Advanced";
+
+    private final String name;
+    private final String level;
+
+    Skill(String name, String level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    String getName() { return name; }
+
+    String getLevel() { return level; }
+
+    static List<Skill> parseAll(String text) {
+        List<Skill> skills = new ArrayList<>();
+        for (String skill : text.split("[,\n]")) {
+            skill = skill.trim();
+            if (!skill.isEmpty()) {
+                skills.add(new Skill(skill, DEFAULT_LEVEL));
+            }
+        }
+        return Collections.unmodifiableList(skills);
+    }
+}
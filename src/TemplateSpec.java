@@ -0,0 +1,271 @@
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+import java.util.*;
+
+// Declarative description of a PDF template: column split, the sections each
+// column shows and in which order, a font per text role and the spacing
+// between elements. Specs are plain data; LayoutPlan compiles them once into
+// the fonts and geometry the renderer binds resume data to, so adding a
+// template only means adding a spec below.
+final class TemplateSpec {
+    // Blocks of content a column can show; the title is used for section headers
+    enum Section {
+        HEADER(null, "En-tête"),
+        EXPERIENCE("EXPERIENCE", "Expérience"),
+        EDUCATION("EDUCATION", "Formation"),
+        PROJECTS("PROJECTS", "Projets"),
+        PHOTO(null, "Photo de profil"),
+        CONTACT(null, "Coordonnées"),
+        SKILLS("SKILLS", "Compétences"),
+        LANGUAGES("LANGUAGES", "Langues"),
+        CERTIFICATIONS("CERTIFICATES", "Certifications");
+
+        final String defaultTitle;
+        final String stage;
+
+        Section(String defaultTitle, String stage) {
+            this.defaultTitle = defaultTitle;
+            this.stage = stage;
+        }
+    }
+
+    // Text roles, each rendered with its own font
+    enum Role { NAME, TITLE, SECTION_HEADER, SECTION_RULE, JOB_TITLE, COMPANY, DATE, NORMAL, CONTACT, SKILL_LEVEL }
+
+    // Spacing in points, with the values of the original Professional layout as defaults
+    enum Gap {
+        PAGE_MARGIN(40),
+        COLUMN_GUTTER(15),
+        NAME_AFTER(3),
+        GROUP_AFTER(15),
+        HEADER_BEFORE(10),
+        HEADER_AFTER(5),
+        RULE_AFTER(8),
+        LINE_AFTER(1),
+        ITEM_AFTER(2),
+        ENTRY_HEADER_AFTER(3),
+        BULLET_INDENT(8),
+        ENTRY_AFTER(10),
+        BLOCK_AFTER(10),
+        ROW_AFTER(4),
+        LIST_ENTRY_AFTER(8);
+
+        final float defaultValue;
+
+        Gap(float defaultValue) {
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    static final class FontSpec {
+        final Font.FontFamily family;
+        final float size;
+        final int style;
+        final BaseColor color;
+
+        FontSpec(Font.FontFamily family, float size, int style, BaseColor color) {
+            this.family = family;
+            this.size = size;
+            this.style = style;
+            this.color = color;
+        }
+    }
+
+    static final class Column {
+        final float width;
+        // How many times the rule pattern is repeated under section headers
+        final int ruleRepeat;
+        final List<Section> sections;
+
+        Column(float width, int ruleRepeat, Section... sections) {
+            this.width = width;
+            this.ruleRepeat = ruleRepeat;
+            this.sections = Collections.unmodifiableList(Arrays.asList(sections));
+        }
+    }
+
+    private static final BaseColor BLUE = new BaseColor(41, 128, 185);
+    private static final BaseColor TEAL = new BaseColor(22, 160, 133);
+    private static final BaseColor SLATE = new BaseColor(52, 73, 94);
+    private static final BaseColor SUBTITLE = new BaseColor(100, 100, 100);
+    private static final BaseColor MUTED = new BaseColor(120, 120, 120);
+    private static final BaseColor FAINT = new BaseColor(150, 150, 150);
+
+    static final String DEFAULT = ResumeDataFile.DEFAULT_TEMPLATE;
+
+    // Built-in templates, in the order the selector lists them
+    private static final Map<String, TemplateSpec> BUILT_IN = new LinkedHashMap<>();
+
+    static {
+        register(new Builder(DEFAULT)
+            .column(60, 11, Section.HEADER, Section.EXPERIENCE, Section.EDUCATION, Section.PROJECTS)
+            .column(40, 6, Section.PHOTO, Section.CONTACT, Section.SKILLS, Section.LANGUAGES, Section.CERTIFICATIONS)
+            .font(Role.NAME, Font.FontFamily.TIMES_ROMAN, 20, Font.BOLD, BLUE)
+            .font(Role.TITLE, Font.FontFamily.HELVETICA, 12, Font.NORMAL, SUBTITLE)
+            .font(Role.SECTION_HEADER, Font.FontFamily.HELVETICA, 11, Font.BOLD, BaseColor.BLACK)
+            .font(Role.SECTION_RULE, Font.FontFamily.HELVETICA, 7, Font.NORMAL, BLUE)
+            .font(Role.JOB_TITLE, Font.FontFamily.HELVETICA, 10, Font.BOLD, BaseColor.BLACK)
+            .font(Role.COMPANY, Font.FontFamily.HELVETICA, 9, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.DATE, Font.FontFamily.HELVETICA, 8, Font.NORMAL, MUTED)
+            .font(Role.NORMAL, Font.FontFamily.HELVETICA, 9, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.CONTACT, Font.FontFamily.HELVETICA, 9, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.SKILL_LEVEL, Font.FontFamily.HELVETICA, 8, Font.NORMAL, FAINT)
+            .rule("(___)")
+            .build());
+
+        register(new Builder("Modern")
+            .basedOn(DEFAULT)
+            .column(65, 14, Section.HEADER, Section.EXPERIENCE, Section.PROJECTS, Section.EDUCATION)
+            .column(35, 7, Section.PHOTO, Section.CONTACT, Section.SKILLS, Section.CERTIFICATIONS, Section.LANGUAGES)
+            .font(Role.NAME, Font.FontFamily.HELVETICA, 22, Font.BOLD, SLATE)
+            .font(Role.TITLE, Font.FontFamily.HELVETICA, 12, Font.NORMAL, TEAL)
+            .font(Role.SECTION_HEADER, Font.FontFamily.HELVETICA, 11, Font.BOLD, TEAL)
+            .font(Role.SECTION_RULE, Font.FontFamily.HELVETICA, 7, Font.NORMAL, TEAL)
+            .rule("____")
+            .gap(Gap.HEADER_BEFORE, 14)
+            .build());
+
+        register(new Builder("Classic")
+            .basedOn(DEFAULT)
+            .column(100, 14, Section.HEADER, Section.CONTACT, Section.EXPERIENCE, Section.EDUCATION,
+                Section.SKILLS, Section.PROJECTS, Section.CERTIFICATIONS, Section.LANGUAGES)
+            .font(Role.NAME, Font.FontFamily.TIMES_ROMAN, 22, Font.BOLD, BaseColor.BLACK)
+            .font(Role.TITLE, Font.FontFamily.TIMES_ROMAN, 12, Font.ITALIC, SUBTITLE)
+            .font(Role.SECTION_HEADER, Font.FontFamily.TIMES_ROMAN, 12, Font.BOLD, BaseColor.BLACK)
+            .font(Role.SECTION_RULE, Font.FontFamily.TIMES_ROMAN, 7, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.JOB_TITLE, Font.FontFamily.TIMES_ROMAN, 11, Font.BOLD, BaseColor.BLACK)
+            .font(Role.COMPANY, Font.FontFamily.TIMES_ROMAN, 10, Font.ITALIC, BaseColor.BLACK)
+            .font(Role.DATE, Font.FontFamily.TIMES_ROMAN, 9, Font.NORMAL, MUTED)
+            .font(Role.NORMAL, Font.FontFamily.TIMES_ROMAN, 10, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.CONTACT, Font.FontFamily.TIMES_ROMAN, 10, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.SKILL_LEVEL, Font.FontFamily.TIMES_ROMAN, 9, Font.ITALIC, FAINT)
+            .rule("________")
+            .gap(Gap.PAGE_MARGIN, 50)
+            .build());
+
+        register(new Builder("Compact")
+            .basedOn(DEFAULT)
+            .column(68, 13, Section.HEADER, Section.EXPERIENCE, Section.EDUCATION, Section.PROJECTS)
+            .column(32, 5, Section.CONTACT, Section.SKILLS, Section.LANGUAGES, Section.CERTIFICATIONS)
+            .font(Role.NAME, Font.FontFamily.HELVETICA, 16, Font.BOLD, BLUE)
+            .font(Role.TITLE, Font.FontFamily.HELVETICA, 10, Font.NORMAL, SUBTITLE)
+            .font(Role.SECTION_HEADER, Font.FontFamily.HELVETICA, 9, Font.BOLD, BaseColor.BLACK)
+            .font(Role.JOB_TITLE, Font.FontFamily.HELVETICA, 9, Font.BOLD, BaseColor.BLACK)
+            .font(Role.COMPANY, Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.DATE, Font.FontFamily.HELVETICA, 7, Font.NORMAL, MUTED)
+            .font(Role.NORMAL, Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.CONTACT, Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.BLACK)
+            .font(Role.SKILL_LEVEL, Font.FontFamily.HELVETICA, 7, Font.NORMAL, FAINT)
+            .gap(Gap.PAGE_MARGIN, 28)
+            .gap(Gap.COLUMN_GUTTER, 10)
+            .gap(Gap.GROUP_AFTER, 8)
+            .gap(Gap.HEADER_BEFORE, 6)
+            .gap(Gap.HEADER_AFTER, 2)
+            .gap(Gap.RULE_AFTER, 4)
+            .gap(Gap.ENTRY_AFTER, 5)
+            .gap(Gap.BLOCK_AFTER, 5)
+            .gap(Gap.ROW_AFTER, 2)
+            .gap(Gap.LIST_ENTRY_AFTER, 4)
+            .build());
+    }
+
+    final String name;
+    final List<Column> columns;
+    final Map<Role, FontSpec> fonts;
+    final Map<Gap, Float> gaps;
+    final Map<Section, String> titles;
+    final String rule;
+
+    private TemplateSpec(Builder builder) {
+        this.name = builder.name;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(builder.columns));
+        this.fonts = Collections.unmodifiableMap(new EnumMap<>(builder.fonts));
+        this.gaps = Collections.unmodifiableMap(new EnumMap<>(builder.gaps));
+        this.titles = Collections.unmodifiableMap(new EnumMap<>(builder.titles));
+        this.rule = builder.rule;
+    }
+
+    private static void register(TemplateSpec spec) {
+        BUILT_IN.put(spec.name, spec);
+    }
+
+    // The named template, or the default one for names we do not know (e.g. from newer .rbd files)
+    static TemplateSpec forName(String name) {
+        TemplateSpec spec = name == null ? null : BUILT_IN.get(name);
+        return spec != null ? spec : BUILT_IN.get(DEFAULT);
+    }
+
+    static String[] names() {
+        return BUILT_IN.keySet().toArray(new String[0]);
+    }
+
+    float gap(Gap gap) {
+        Float value = gaps.get(gap);
+        return value != null ? value : gap.defaultValue;
+    }
+
+    String title(Section section) {
+        String title = titles.get(section);
+        return title != null ? title : section.defaultTitle;
+    }
+
+    static final class Builder {
+        private final String name;
+        private final List<Column> columns = new ArrayList<>();
+        private final Map<Role, FontSpec> fonts = new EnumMap<>(Role.class);
+        private final Map<Gap, Float> gaps = new EnumMap<>(Gap.class);
+        private final Map<Section, String> titles = new EnumMap<>(Section.class);
+        private String rule = "(___)";
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        // Start from another template's fonts, spacing, titles and rule; columns are always given explicitly
+        Builder basedOn(String template) {
+            TemplateSpec base = BUILT_IN.get(template);
+            fonts.putAll(base.fonts);
+            gaps.putAll(base.gaps);
+            titles.putAll(base.titles);
+            rule = base.rule;
+            return this;
+        }
+
+        Builder column(float width, int ruleRepeat, Section... sections) {
+            columns.add(new Column(width, ruleRepeat, sections));
+            return this;
+        }
+
+        Builder font(Role role, Font.FontFamily family, float size, int style, BaseColor color) {
+            fonts.put(role, new FontSpec(family, size, style, color));
+            return this;
+        }
+
+        Builder gap(Gap gap, float value) {
+            gaps.put(gap, value);
+            return this;
+        }
+
+        Builder title(Section section, String title) {
+            titles.put(section, title);
+            return this;
+        }
+
+        Builder rule(String pattern) {
+            rule = pattern;
+            return this;
+        }
+
+        TemplateSpec build() {
+            if (columns.isEmpty()) {
+                throw new IllegalStateException("Template " + name + " has no columns");
+            }
+            for (Role role : Role.values()) {
+                if (!fonts.containsKey(role)) {
+                    throw new IllegalStateException("Template " + name + " has no font for " + role);
+                }
+            }
+            return new TemplateSpec(this);
+        }
+    }
+}